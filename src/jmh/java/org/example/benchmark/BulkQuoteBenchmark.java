@@ -0,0 +1,74 @@
+package org.example.benchmark;
+
+import org.example.domain.VehicleType;
+import org.example.pricing.BulkQuotes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing columns of tuples for every vehicle type: the columnar {@link BulkQuotes} passes against a loop calling
+ * {@link VehicleType#calculatePriceCents(long, int, int)} once per tuple and type. Scores are per column, divide by
+ * {@code rows} for the cost of one tuple.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkQuoteBenchmark {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    @Param({"1024", "65536"})
+    int rows;
+
+    long[] days;
+    int[] mileage;
+    int[] licenseYears;
+    long[][] prices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        days = new long[rows];
+        mileage = new int[rows];
+        licenseYears = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            days[i] = random.nextInt(1, 30);
+            mileage[i] = random.nextInt(1, 1000);
+            licenseYears[i] = random.nextInt(1, 10);
+        }
+        prices = new long[TYPES.length][rows];
+    }
+
+    @Benchmark
+    public long[][] columnar() {
+        BulkQuotes.quote(days, mileage, licenseYears, prices);
+        return prices;
+    }
+
+    @Benchmark
+    public long[][] scalar() {
+        for (VehicleType type : TYPES) {
+            long[] column = prices[type.ordinal()];
+            for (int i = 0; i < rows; i++) {
+                column[i] = type.calculatePriceCents(days[i], mileage[i], licenseYears[i]);
+            }
+        }
+        return prices;
+    }
+}
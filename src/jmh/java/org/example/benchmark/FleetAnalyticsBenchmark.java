@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import org.example.analytics.FleetAnalytics;
+import org.example.analytics.FleetReport;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.AnalyticsReservationRepository;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard figures of a populated store: a full {@link FleetAnalytics} aggregation, in parallel and on the calling
+ * thread, against reading the running counters of an {@link AnalyticsReservationRepository}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetAnalyticsBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+    private static final int DAYS = 365;
+
+    @Param({"10000", "100000"})
+    int reservations;
+
+    AnalyticsReservationRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new AnalyticsReservationRepository(new InMemoryReservationRepositoryImpl());
+        Random random = new Random(42);
+        for (int i = 0; i < reservations; i++) {
+            LocalDate from = FIRST_DAY.plusDays(random.nextInt(DAYS));
+            Vehicle vehicle = new Vehicle(VehicleType.values()[random.nextInt(VehicleType.values().length)]);
+            repository.save(ReservationDetails.restore(UUID.randomUUID(), vehicle, random.nextInt(100_000), from,
+                    from.plusDays(random.nextInt(14))));
+        }
+    }
+
+    @Benchmark
+    public FleetReport parallelAggregation() {
+        return FleetAnalytics.aggregate(repository, FIRST_DAY, FIRST_DAY.plusDays(DAYS - 1));
+    }
+
+    @Benchmark
+    public FleetReport sequentialAggregation() {
+        return repository.findAll().collect(FleetAnalytics.toReport(FIRST_DAY, FIRST_DAY.plusDays(DAYS - 1)));
+    }
+
+    /**
+     * Revenue, reservations and today's occupancy of every type.
+     */
+    @Benchmark
+    public long counters() {
+        long sum = 0;
+        LocalDate today = FIRST_DAY.plusDays(100);
+        for (VehicleType type : VehicleType.values()) {
+            sum += repository.getCounters().getRevenueCents(type) + repository.getCounters().getReservations(type)
+                    + repository.getCounters().getOccupancy(type, today);
+        }
+        return sum;
+    }
+}
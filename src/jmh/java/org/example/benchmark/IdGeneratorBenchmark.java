@@ -0,0 +1,41 @@
+package org.example.benchmark;
+
+import org.example.id.IdGenerator;
+import org.example.id.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one id from {@link IdGenerator#RANDOM} against a {@link TimeOrderedIdGenerator}; run with {@code -t} to see
+ * the random generator contend on its shared {@link java.security.SecureRandom}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator timeOrdered = new TimeOrderedIdGenerator();
+
+    @Benchmark
+    public UUID random() {
+        return IdGenerator.RANDOM.next();
+    }
+
+    @Benchmark
+    public UUID timeOrdered() {
+        return timeOrdered.next();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.benchmark;
+
+import org.example.domain.VehicleType;
+import org.example.service.PriceQuotes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Quoting all vehicle types: the primitive {@link PriceQuotes} path in cents, expected to report 0 B/op with
+ * {@code -prof gc}, against the stream and map pipeline it replaced and against the former tariff computed in doubles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    private final long[] prices = new long[PriceQuotes.TYPE_COUNT];
+    private final double[] doublePrices = new double[PriceQuotes.TYPE_COUNT];
+    private final int[] ranking = new int[PriceQuotes.TYPE_COUNT];
+
+    @Benchmark
+    public void primitiveQuote(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PriceQuotes.quote(random.nextInt(1, 30), random.nextInt(1, 1000), random.nextInt(1, 10), prices);
+        PriceQuotes.rankByPrice(prices, ranking);
+        blackhole.consume(ranking[0]);
+        blackhole.consume(prices[ranking[0]]);
+    }
+
+    /**
+     * The former hardcoded tariff in double arithmetic, ranked the same way, as the baseline of the cents path.
+     */
+    @Benchmark
+    public void doubleQuote(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long days = random.nextInt(1, 30);
+        int mileage = random.nextInt(1, 1000);
+        int licenseYears = random.nextInt(1, 10);
+        doublePrices[0] = days * (days < 10 ? 20 : 15);
+        double van = days * 22;
+        doublePrices[1] = van + van * 0.1;
+        doublePrices[2] = days * 15 + mileage * 0.5;
+        double pickup = days * 30;
+        doublePrices[3] = licenseYears < 3 ? pickup + pickup * 0.1 : pickup;
+        for (int rank = 0; rank < PriceQuotes.TYPE_COUNT; rank++) {
+            int position = rank;
+            while (position > 0 && doublePrices[ranking[position - 1]] > doublePrices[rank]) {
+                ranking[position] = ranking[position - 1];
+                position--;
+            }
+            ranking[position] = rank;
+        }
+        blackhole.consume(ranking[0]);
+        blackhole.consume(doublePrices[ranking[0]]);
+    }
+
+    @Benchmark
+    public Map<VehicleType, Long> streamQuote() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long days = random.nextInt(1, 30);
+        int mileage = random.nextInt(1, 1000);
+        int licenseYears = random.nextInt(1, 10);
+        return Arrays.stream(VehicleType.values())
+                .collect(Collectors.toMap(type -> type, type -> type.calculatePriceCents(days, mileage, licenseYears)))
+                .entrySet()
+                .stream()
+                .sorted(Map.Entry.comparingByValue())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+    }
+}
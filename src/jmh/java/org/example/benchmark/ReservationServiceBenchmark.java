@@ -0,0 +1,282 @@
+package org.example.benchmark;
+
+import org.example.domain.AvailableSlot;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.respository.CompactReservationRepositoryImpl;
+import org.example.respository.FleetIndexedReservationRepository;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.respository.IntervalTreeReservationRepositoryImpl;
+import org.example.respository.ReservationRepository;
+import org.example.respository.ShardedReservationRepository;
+import org.example.service.ReservationService;
+import org.example.service.ReservationServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link ReservationService} against a pre-populated fleet. Every vehicle is booked on the odd days of
+ * its calendar, benchmarks book and release the even days in between, so the repository keeps its size and every
+ * availability check has to look at a full booking history. Thread count is set with the JMH option {@code -t}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationServiceBenchmark {
+
+    private static final int MILEAGE = 100;
+    private static final int LICENSE_YEARS = 4;
+    private static final int AVAILABILITY_WINDOW_DAYS = 14;
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+
+        @Param({"1000", "10000"})
+        int fleetSize;
+
+        @Param({"10", "100"})
+        int bookingsPerVehicle;
+
+        /**
+         * UNIFORM spreads the fleet evenly over the vehicle types, SUV_HEAVY makes 70% of it SUVs.
+         */
+        @Param({"UNIFORM", "SUV_HEAVY"})
+        String typeMix;
+
+        @Param({"IN_MEMORY", "INTERVAL_TREE", "FLEET_INDEXED", "COMPACT", "SHARDED"})
+        String repository;
+
+        ReservationRepository reservationRepository;
+        InMemoryVehicleRepository vehicleRepository;
+        ReservationService service;
+        List<Vehicle> vehicles;
+        VehicleType[] requestedTypes;
+        LocalDate firstDay;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            reservationRepository = createRepository(repository);
+            vehicleRepository = new InMemoryVehicleRepository();
+            service = new ReservationServiceImpl(reservationRepository, vehicleRepository);
+            vehicles = new ArrayList<>(fleetSize);
+            for (int i = 0; i < fleetSize; i++) {
+                vehicles.add(new Vehicle(typeOf(i)));
+            }
+            vehicleRepository.saveAll(vehicles);
+            requestedTypes = new VehicleType[100];
+            for (int i = 0; i < requestedTypes.length; i++) {
+                requestedTypes[i] = typeOf(i);
+            }
+            firstDay = LocalDate.now().plusDays(1);
+            for (Vehicle vehicle : vehicles) {
+                for (int booking = 0; booking < bookingsPerVehicle; booking++) {
+                    LocalDate day = firstDay.plusDays(2L * booking + 1);
+                    reservationRepository.save(ReservationDetails.ReservationDetailsBuilder.newInstance()
+                            .vehicle(vehicle)
+                            .fromDate(day)
+                            .toDate(day)
+                            .mileage(MILEAGE)
+                            .licenseYears(LICENSE_YEARS)
+                            .build());
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (reservationRepository instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+
+        Vehicle randomVehicle() {
+            return vehicles.get(ThreadLocalRandom.current().nextInt(vehicles.size()));
+        }
+
+        VehicleType randomType() {
+            return requestedTypes[ThreadLocalRandom.current().nextInt(requestedTypes.length)];
+        }
+
+        /**
+         * @return one of the days between two existing bookings
+         */
+        LocalDate randomFreeDay() {
+            return firstDay.plusDays(2L * ThreadLocalRandom.current().nextInt(bookingsPerVehicle));
+        }
+
+        private VehicleType typeOf(int index) {
+            if ("SUV_HEAVY".equals(typeMix)) {
+                return index % 10 < 7 ? VehicleType.SUV : VehicleType.values()[index % VehicleType.values().length];
+            }
+            return VehicleType.values()[index % VehicleType.values().length];
+        }
+
+        private static ReservationRepository createRepository(String repository) {
+            return switch (repository) {
+                case "IN_MEMORY" -> new InMemoryReservationRepositoryImpl();
+                case "INTERVAL_TREE" -> new IntervalTreeReservationRepositoryImpl();
+                case "FLEET_INDEXED" -> new FleetIndexedReservationRepository(new IntervalTreeReservationRepositoryImpl());
+                case "COMPACT" -> new CompactReservationRepositoryImpl();
+                case "SHARDED" -> new ShardedReservationRepository(Runtime.getRuntime().availableProcessors());
+                default -> throw new IllegalArgumentException("Unknown repository " + repository);
+            };
+        }
+    }
+
+    /**
+     * Reservation owned by one benchmark thread, moved around by the modify and cancel benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class OwnReservation {
+        UUID reservationId;
+        Vehicle vehicle;
+
+        @Setup(Level.Iteration)
+        public void setUp(Fleet fleet) {
+            vehicle = fleet.randomVehicle();
+            reservationId = null;
+            renew(fleet);
+        }
+
+        void renew(Fleet fleet) {
+            if (reservationId != null) {
+                try {
+                    fleet.service.cancelReservation(reservationId);
+                } catch (InvalidReservationIdException ignored) {
+                    // already released
+                }
+                reservationId = null;
+            }
+            while (reservationId == null) {
+                reserve(fleet);
+            }
+        }
+
+        private void reserve(Fleet fleet) {
+            LocalDate day = fleet.randomFreeDay();
+            try {
+                reservationId = fleet.service.reserveCarByVehicleId(vehicle.getId(), day, day, MILEAGE, LICENSE_YEARS).getId();
+            } catch (ReservationNotPossibleException e) {
+                reservationId = null;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object reserveCarByVehicleId(Fleet fleet) {
+        LocalDate day = fleet.randomFreeDay();
+        try {
+            ReservationDetails details = fleet.service.reserveCarByVehicleId(fleet.randomVehicle().getId(), day, day,
+                    MILEAGE, LICENSE_YEARS);
+            fleet.service.cancelReservation(details.getId());
+            return details;
+        } catch (ReservationNotPossibleException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object reserveCarByType(Fleet fleet) {
+        LocalDate day = fleet.randomFreeDay();
+        try {
+            ReservationDetails details = fleet.service.reserveCarByType(fleet.randomType(), day, day,
+                    MILEAGE, LICENSE_YEARS);
+            fleet.service.cancelReservation(details.getId());
+            return details;
+        } catch (ReservationNotPossibleException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object modifyReservation(Fleet fleet, OwnReservation own) {
+        LocalDate day = fleet.randomFreeDay();
+        try {
+            ReservationDetails details = fleet.service.modifyReservation(own.reservationId, day, day,
+                    MILEAGE, LICENSE_YEARS);
+            own.reservationId = details.getId();
+            return details;
+        } catch (ReservationNotPossibleException e) {
+            // a failed modification keeps the old booking, the next invocation modifies it again
+            return e;
+        }
+    }
+
+    /**
+     * Cancels the reservation of the thread and books it again, the pair keeps the repository size stable.
+     */
+    @Benchmark
+    public Object cancelReservation(Fleet fleet, OwnReservation own) {
+        ReservationDetails cancelled = fleet.service.cancelReservation(own.reservationId);
+        own.reservationId = null;
+        own.renew(fleet);
+        return cancelled;
+    }
+
+    @Benchmark
+    public Map<VehicleType, Double> getOptions(Fleet fleet) {
+        LocalDate from = fleet.randomFreeDay();
+        return fleet.service.getOptions(from, from.plusDays(ThreadLocalRandom.current().nextInt(1, 15)),
+                MILEAGE, LICENSE_YEARS);
+    }
+
+    /**
+     * Every free single day of a type within a two week window, see {@link #probeAvailability} for the same answer
+     * from one availability check per start date.
+     */
+    @Benchmark
+    public long findAvailability(Fleet fleet) {
+        LocalDate windowFrom = fleet.randomFreeDay();
+        return fleet.service.findAvailability(fleet.randomType(), windowFrom, windowFrom.plusDays(AVAILABILITY_WINDOW_DAYS), 0)
+                .count();
+    }
+
+    @Benchmark
+    public Optional<AvailableSlot> firstAvailableSlot(Fleet fleet) {
+        LocalDate windowFrom = fleet.randomFreeDay();
+        return fleet.service.findAvailability(fleet.randomType(), windowFrom, windowFrom.plusDays(AVAILABILITY_WINDOW_DAYS), 0)
+                .findFirst();
+    }
+
+    @Benchmark
+    public long probeAvailability(Fleet fleet) {
+        LocalDate windowFrom = fleet.randomFreeDay();
+        VehicleType type = fleet.randomType();
+        Set<Vehicle> vehicles = fleet.vehicleRepository.getVehiclesByType(type);
+        long free = 0;
+        for (int day = 0; day <= AVAILABILITY_WINDOW_DAYS; day++) {
+            LocalDate start = windowFrom.plusDays(day);
+            free += fleet.reservationRepository.findAvailableVehicles(type, vehicles, start, start).count();
+        }
+        return free;
+    }
+}
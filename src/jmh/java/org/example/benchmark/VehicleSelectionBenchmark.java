@@ -0,0 +1,131 @@
+package org.example.benchmark;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.respository.IntervalTreeReservationRepositoryImpl;
+import org.example.service.BestFitSelectionStrategy;
+import org.example.service.LeastUtilizedSelectionStrategy;
+import org.example.service.ReservationService;
+import org.example.service.ReservationServiceImpl;
+import org.example.service.RoundRobinSelectionStrategy;
+import org.example.service.VehicleSelectionStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link VehicleSelectionStrategy} implementations on a fleet of one type kept close to saturation:
+ * every operation books a random stretch of one to seven days within a 60 day horizon and, once the fleet holds
+ * {@code liveReservations} bookings, cancels the oldest one. Fleet utilization shows up as the share of
+ * {@code reserved} operations among {@code reserved + rejected}, fragmentation as a growing rejected count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehicleSelectionBenchmark {
+
+    private static final int MILEAGE = 100;
+    private static final int LICENSE_YEARS = 4;
+    private static final int HORIZON_DAYS = 60;
+
+    @State(Scope.Thread)
+    public static class Fleet {
+
+        @Param({"100", "1000"})
+        int fleetSize;
+
+        /**
+         * Bookings kept alive, as a percentage of what the fleet could hold with an average length of four days.
+         */
+        @Param({"80"})
+        int loadPercent;
+
+        @Param({"FIRST_AVAILABLE", "BEST_FIT", "ROUND_ROBIN", "LEAST_UTILIZED"})
+        String strategy;
+
+        ReservationService service;
+        ArrayDeque<UUID> live;
+        int liveReservations;
+        LocalDate firstDay;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            InMemoryVehicleRepository vehicleRepository = new InMemoryVehicleRepository();
+            List<Vehicle> vehicles = new ArrayList<>(fleetSize);
+            for (int i = 0; i < fleetSize; i++) {
+                vehicles.add(new Vehicle(VehicleType.SEDAN));
+            }
+            vehicleRepository.saveAll(vehicles);
+            service = new ReservationServiceImpl(new IntervalTreeReservationRepositoryImpl(), vehicleRepository,
+                    createStrategy(strategy));
+            live = new ArrayDeque<>();
+            liveReservations = fleetSize * HORIZON_DAYS / 4 * loadPercent / 100;
+            firstDay = LocalDate.now().plusDays(1);
+        }
+
+        private static VehicleSelectionStrategy createStrategy(String strategy) {
+            return switch (strategy) {
+                case "FIRST_AVAILABLE" -> VehicleSelectionStrategy.FIRST_AVAILABLE;
+                case "BEST_FIT" -> new BestFitSelectionStrategy();
+                case "ROUND_ROBIN" -> new RoundRobinSelectionStrategy();
+                case "LEAST_UTILIZED" -> new LeastUtilizedSelectionStrategy();
+                default -> throw new IllegalArgumentException("Unknown strategy " + strategy);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long reserved;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            reserved = 0;
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public Object reserveCarByType(Fleet fleet, Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate from = fleet.firstDay.plusDays(random.nextInt(HORIZON_DAYS - 7));
+        if (fleet.live.size() >= fleet.liveReservations) {
+            fleet.service.cancelReservation(fleet.live.poll());
+        }
+        try {
+            ReservationDetails details = fleet.service.reserveCarByType(VehicleType.SEDAN, from,
+                    from.plusDays(random.nextInt(7)), MILEAGE, LICENSE_YEARS);
+            fleet.live.add(details.getId());
+            outcomes.reserved++;
+            return details;
+        } catch (ReservationNotPossibleException e) {
+            outcomes.rejected++;
+            return e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.analytics;
+
+import org.example.domain.ReservationDetails;
+import org.example.errors.InvalidDateRangeException;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.stream.Collector;
+
+/**
+ * Full aggregation of a reservation store into a {@link FleetReport}, for figures which {@link FleetCounters} does
+ * not keep running, e.g. a past date range of a freshly opened repository.
+ */
+public final class FleetAnalytics {
+
+    private FleetAnalytics() {
+    }
+
+    /**
+     * Aggregates every reservation of the repository on the common fork-join pool: the stream of all reservations is
+     * split, every task folds its part into primitive arrays of its own and the partial results are summed pairwise,
+     * so no task ever waits for another one. Like {@link ReservationRepository#findAll()}, writes running concurrently
+     * may or may not be reflected.
+     *
+     * @param fromDate first day of the occupancy figures; revenue, reservations and booking lengths cover all
+     *                 reservations
+     * @param toDate   last day of the occupancy figures; every task holds a counter per type and day of the range
+     */
+    public static FleetReport aggregate(ReservationRepository repository, LocalDate fromDate, LocalDate toDate) {
+        return repository.findAll().parallel().collect(toReport(fromDate, toDate));
+    }
+
+    /**
+     * @return collector of the reservations into a report with the occupancy of the given days, usable on parallel
+     * streams
+     */
+    public static Collector<ReservationDetails, ?, FleetReport> toReport(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Dates must be set");
+        }
+        if (fromDate.isAfter(toDate)) {
+            throw new InvalidDateRangeException("'from' date must be before 'to' date");
+        }
+        return Collector.of(() -> new ReportAccumulator(fromDate, toDate), ReportAccumulator::add,
+                ReportAccumulator::combine, ReportAccumulator::finish, Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.analytics;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running figures of the reservations held by a repository, the same ones a {@link FleetReport} aggregates. They are
+ * updated on every write, see {@link org.example.respository.AnalyticsReservationRepository}, so a dashboard reads
+ * each of them in constant time instead of rescanning the store. Totals are {@link LongAdder}s, so concurrent
+ * bookings do not contend on one cache line; occupancy is an {@link AtomicLongArray} of vehicles per type for every
+ * calendar day a reservation ever touched. Figures are read one at a time, a read of several of them may see a
+ * write half way.
+ */
+public class FleetCounters {
+
+    private static final int TYPE_COUNT = VehicleType.values().length;
+
+    private final LongAdder[] revenueCents = newAdders(TYPE_COUNT);
+    private final LongAdder[] reservations = newAdders(TYPE_COUNT);
+    private final LongAdder[] bookingLengths = newAdders(FleetReport.LONGEST_TRACKED_BOOKING_DAYS + 1);
+    private final Map<Long, AtomicLongArray> occupancyByEpochDay = new ConcurrentHashMap<>();
+
+    public void added(ReservationDetails reservationDetails) {
+        update(reservationDetails, 1);
+    }
+
+    public void removed(ReservationDetails reservationDetails) {
+        update(reservationDetails, -1);
+    }
+
+    /**
+     * Resets every figure; writes running concurrently may or may not be counted afterwards.
+     */
+    public void clear() {
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            revenueCents[type].reset();
+            reservations[type].reset();
+        }
+        for (LongAdder bookings : bookingLengths) {
+            bookings.reset();
+        }
+        occupancyByEpochDay.clear();
+    }
+
+    public long getRevenueCents(VehicleType type) {
+        return revenueCents[type.ordinal()].sum();
+    }
+
+    public long getReservations(VehicleType type) {
+        return reservations[type.ordinal()].sum();
+    }
+
+    /**
+     * @see FleetReport#getBookings(int)
+     */
+    public long getBookings(int lengthDays) {
+        if (lengthDays < 0) {
+            throw new IllegalArgumentException("Booking length must not be negative");
+        }
+        return bookingLengths[Math.min(lengthDays, FleetReport.LONGEST_TRACKED_BOOKING_DAYS)].sum();
+    }
+
+    /**
+     * @return number of vehicles of the type reserved on the given day
+     */
+    public long getOccupancy(VehicleType type, LocalDate date) {
+        AtomicLongArray occupancy = occupancyByEpochDay.get(date.toEpochDay());
+        return occupancy == null ? 0 : occupancy.get(type.ordinal());
+    }
+
+    private void update(ReservationDetails reservationDetails, int delta) {
+        int type = reservationDetails.getVehicle().getType().ordinal();
+        revenueCents[type].add(delta * reservationDetails.getPriceCents());
+        reservations[type].add(delta);
+        bookingLengths[FleetReport.bookingLengthBucket(reservationDetails)].add(delta);
+        long toDay = reservationDetails.getToDate().toEpochDay();
+        for (long day = reservationDetails.getFromDate().toEpochDay(); day <= toDay; day++) {
+            // days are kept once touched, a day whose count drops back to 0 costs one small array
+            occupancyByEpochDay.computeIfAbsent(day, k -> new AtomicLongArray(TYPE_COUNT)).addAndGet(type, delta);
+        }
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.analytics;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Figures of a set of reservations as aggregated by {@link FleetAnalytics}: revenue and number of reservations per
+ * type, the distribution of booking lengths and, for every day of the requested range, the number of vehicles of each
+ * type which are reserved on that day. A booking is as long as its priced days, from its 'from' to its 'to' date.
+ */
+public final class FleetReport {
+
+    /** bookings of this many days or more share the last bucket of the length distribution */
+    public static final int LONGEST_TRACKED_BOOKING_DAYS = 60;
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final long[] revenueCents;
+    private final long[] reservations;
+    private final long[] bookingLengths;
+    private final long[][] occupancy;
+
+    FleetReport(LocalDate fromDate, LocalDate toDate, long[] revenueCents, long[] reservations, long[] bookingLengths,
+                long[][] occupancy) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.revenueCents = revenueCents;
+        this.reservations = reservations;
+        this.bookingLengths = bookingLengths;
+        this.occupancy = occupancy;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public long getRevenueCents(VehicleType type) {
+        return revenueCents[type.ordinal()];
+    }
+
+    public long getReservations(VehicleType type) {
+        return reservations[type.ordinal()];
+    }
+
+    /**
+     * @return number of bookings of the given length in days, for {@link #LONGEST_TRACKED_BOOKING_DAYS} and more
+     * the number of all bookings at least that long
+     */
+    public long getBookings(int lengthDays) {
+        if (lengthDays < 0) {
+            throw new IllegalArgumentException("Booking length must not be negative");
+        }
+        return bookingLengths[Math.min(lengthDays, LONGEST_TRACKED_BOOKING_DAYS)];
+    }
+
+    /**
+     * @return number of vehicles of the type reserved on the given day
+     * @throws IllegalArgumentException if the day is outside of the range of the report
+     */
+    public long getOccupancy(VehicleType type, LocalDate date) {
+        if (date.isBefore(fromDate) || date.isAfter(toDate)) {
+            throw new IllegalArgumentException("Date " + date + " is outside of the report");
+        }
+        return occupancy[type.ordinal()][(int) ChronoUnit.DAYS.between(fromDate, date)];
+    }
+
+    static int bookingLengthBucket(ReservationDetails reservationDetails) {
+        long days = reservationDetails.getToDate().toEpochDay() - reservationDetails.getFromDate().toEpochDay();
+        return (int) Math.min(days, LONGEST_TRACKED_BOOKING_DAYS);
+    }
+}
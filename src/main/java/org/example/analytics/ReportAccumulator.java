@@ -0,0 +1,74 @@
+package org.example.analytics;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+
+/**
+ * Mutable partial result of one fork-join task. Occupancy is kept as a difference array: a reservation adds one on
+ * its first day in the range and subtracts one after its last, so it costs two increments whatever its length and the
+ * running sum in {@link #finish()} turns the differences into vehicles per day.
+ */
+class ReportAccumulator {
+
+    private static final int TYPE_COUNT = VehicleType.values().length;
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final long fromDay;
+    private final int days;
+    private final long[] revenueCents = new long[TYPE_COUNT];
+    private final long[] reservations = new long[TYPE_COUNT];
+    private final long[] bookingLengths = new long[FleetReport.LONGEST_TRACKED_BOOKING_DAYS + 1];
+    private final long[][] occupancyDeltas;
+
+    ReportAccumulator(LocalDate fromDate, LocalDate toDate) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.fromDay = fromDate.toEpochDay();
+        this.days = Math.toIntExact(toDate.toEpochDay() - fromDay + 1);
+        this.occupancyDeltas = new long[TYPE_COUNT][days + 1];
+    }
+
+    void add(ReservationDetails reservationDetails) {
+        int type = reservationDetails.getVehicle().getType().ordinal();
+        revenueCents[type] += reservationDetails.getPriceCents();
+        reservations[type]++;
+        bookingLengths[FleetReport.bookingLengthBucket(reservationDetails)]++;
+        long first = Math.max(reservationDetails.getFromDate().toEpochDay() - fromDay, 0);
+        long last = Math.min(reservationDetails.getToDate().toEpochDay() - fromDay, days - 1);
+        if (first <= last) {
+            occupancyDeltas[type][(int) first]++;
+            occupancyDeltas[type][(int) last + 1]--;
+        }
+    }
+
+    ReportAccumulator combine(ReportAccumulator other) {
+        addTo(revenueCents, other.revenueCents);
+        addTo(reservations, other.reservations);
+        addTo(bookingLengths, other.bookingLengths);
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            addTo(occupancyDeltas[type], other.occupancyDeltas[type]);
+        }
+        return this;
+    }
+
+    FleetReport finish() {
+        long[][] occupancy = new long[TYPE_COUNT][days];
+        for (int type = 0; type < TYPE_COUNT; type++) {
+            long reserved = 0;
+            for (int day = 0; day < days; day++) {
+                reserved += occupancyDeltas[type][day];
+                occupancy[type][day] = reserved;
+            }
+        }
+        return new FleetReport(fromDate, toDate, revenueCents, reservations, bookingLengths, occupancy);
+    }
+
+    private static void addTo(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+}
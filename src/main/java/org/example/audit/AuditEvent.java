@@ -0,0 +1,70 @@
+package org.example.audit;
+
+import lombok.Value;
+import org.example.domain.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Decoded form of one event in the fixed binary layout written by {@link RingBufferAuditTrail}:
+ * <pre>
+ * [long sequence][long epochMillis][int eventType][int vehicleType][uuid reservationId][uuid vehicleId]
+ * [uuid previousReservationId][int fromEpochDay][int toEpochDay][long priceCents]
+ * </pre>
+ * The previous reservation id is only set for {@link AuditEventType#MODIFIED} and all zero otherwise.
+ */
+@Value
+public class AuditEvent {
+
+    public static final int SIZE = 88;
+
+    static final int SEQUENCE = 0;
+    static final int TIMESTAMP = 8;
+    static final int EVENT_TYPE = 16;
+    static final int VEHICLE_TYPE = 20;
+    static final int RESERVATION_ID = 24;
+    static final int VEHICLE_ID = 40;
+    static final int PREVIOUS_RESERVATION_ID = 56;
+    static final int FROM_DATE = 72;
+    static final int TO_DATE = 76;
+    static final int PRICE = 80;
+
+    private static final AuditEventType[] EVENT_TYPES = AuditEventType.values();
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    long sequence;
+    Instant timestamp;
+    AuditEventType type;
+    UUID reservationId;
+    UUID vehicleId;
+    VehicleType vehicleType;
+    UUID previousReservationId;
+    LocalDate fromDate;
+    LocalDate toDate;
+    long priceCents;
+
+    /**
+     * Reads the event at the given index of a buffer holding consecutive events, starting at its position.
+     */
+    public static AuditEvent read(ByteBuffer events, int index) {
+        int offset = events.position() + index * SIZE;
+        UUID previous = readUuid(events, offset + PREVIOUS_RESERVATION_ID);
+        return new AuditEvent(events.getLong(offset + SEQUENCE),
+                Instant.ofEpochMilli(events.getLong(offset + TIMESTAMP)),
+                EVENT_TYPES[events.getInt(offset + EVENT_TYPE)],
+                readUuid(events, offset + RESERVATION_ID),
+                readUuid(events, offset + VEHICLE_ID),
+                VEHICLE_TYPES[events.getInt(offset + VEHICLE_TYPE)],
+                previous.getMostSignificantBits() == 0 && previous.getLeastSignificantBits() == 0 ? null : previous,
+                LocalDate.ofEpochDay(events.getInt(offset + FROM_DATE)),
+                LocalDate.ofEpochDay(events.getInt(offset + TO_DATE)),
+                events.getLong(offset + PRICE));
+    }
+
+    private static UUID readUuid(ByteBuffer events, int offset) {
+        return new UUID(events.getLong(offset), events.getLong(offset + Long.BYTES));
+    }
+}
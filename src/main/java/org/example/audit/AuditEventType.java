@@ -0,0 +1,7 @@
+package org.example.audit;
+
+public enum AuditEventType {
+    RESERVED,
+    MODIFIED,
+    CANCELLED
+}
@@ -0,0 +1,50 @@
+package org.example.audit;
+
+import lombok.Getter;
+
+@Getter
+public class AuditOptions {
+    private final int capacity;
+    private final int humanReadableSampleRate;
+
+    private AuditOptions(int capacity, int humanReadableSampleRate) {
+        this.capacity = capacity;
+        this.humanReadableSampleRate = humanReadableSampleRate;
+    }
+
+    public static class AuditOptionsBuilder {
+        private int capacity = 64 * 1024;
+        private int humanReadableSampleRate;
+
+        public static AuditOptionsBuilder newInstance() {
+            return new AuditOptionsBuilder();
+        }
+
+        /**
+         * @param capacity number of events the ring buffer holds, rounded up to a power of two; events arriving while
+         *                 it is full are dropped and counted
+         */
+        public AuditOptionsBuilder capacity(int capacity) {
+            if (capacity <= 0 || capacity > 1 << 24) {
+                throw new IllegalArgumentException("Capacity must be between 1 and 2^24");
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * @param humanReadableSampleRate every how many events one is also logged at INFO, 0 to log none
+         */
+        public AuditOptionsBuilder humanReadableSampleRate(int humanReadableSampleRate) {
+            if (humanReadableSampleRate < 0) {
+                throw new IllegalArgumentException("Sample rate must not be negative");
+            }
+            this.humanReadableSampleRate = humanReadableSampleRate;
+            return this;
+        }
+
+        public AuditOptions build() {
+            return new AuditOptions(capacity, humanReadableSampleRate);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.audit;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Destination of the events drained from a {@link RingBufferAuditTrail}, called on its drain thread only.
+ */
+@FunctionalInterface
+public interface AuditSink {
+
+    /**
+     * @param events read-only view of one or more consecutive events of {@link AuditEvent#SIZE}
+     *               bytes each, only valid during the call
+     */
+    void write(ByteBuffer events);
+}
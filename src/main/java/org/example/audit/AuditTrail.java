@@ -0,0 +1,30 @@
+package org.example.audit;
+
+import org.example.domain.ReservationDetails;
+
+/**
+ * Receives an event for every change to the reservations made through the service. Implementations are called on
+ * the booking path and must not block.
+ */
+public interface AuditTrail {
+
+    AuditTrail NONE = new AuditTrail() {
+        @Override
+        public void reserved(ReservationDetails reservationDetails) {
+        }
+
+        @Override
+        public void modified(ReservationDetails previous, ReservationDetails current) {
+        }
+
+        @Override
+        public void cancelled(ReservationDetails reservationDetails) {
+        }
+    };
+
+    void reserved(ReservationDetails reservationDetails);
+
+    void modified(ReservationDetails previous, ReservationDetails current);
+
+    void cancelled(ReservationDetails reservationDetails);
+}
@@ -0,0 +1,29 @@
+package org.example.audit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Appends the events unchanged to a channel; as the ring buffer is direct, a file channel writes them without a copy.
+ */
+public class ChannelAuditSink implements AuditSink {
+
+    private final WritableByteChannel channel;
+
+    public ChannelAuditSink(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(ByteBuffer events) {
+        try {
+            while (events.hasRemaining()) {
+                channel.write(events);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.domain.ReservationDetails;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link AuditTrail} which keeps the booking path free of formatting and I/O. Producers claim a slot of a fixed
+ * ring of {@link AuditEvent#SIZE}-byte records, write the event's primitive fields into it and publish the slot;
+ * a single daemon thread drains published runs of slots to an {@link AuditSink} in claim order. Producers never
+ * block: an event arriving while the ring is full is dropped and counted in {@link #getDroppedEvents()}.
+ * <p>
+ * Human-readable logging is opt-in: with a sample rate of N, the drain thread also logs every Nth event at INFO.
+ */
+@Slf4j
+public class RingBufferAuditTrail implements AuditTrail, Closeable {
+
+    private static final long IDLE_PARK_NANOS = 100_000;
+
+    private final ByteBuffer ring;
+    private final ByteBuffer drainView;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int sampleRate;
+    private final AuditSink sink;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+    private volatile long consumed;
+    private volatile boolean running = true;
+
+    public RingBufferAuditTrail(AuditSink sink, AuditOptions options) {
+        int capacity = Integer.highestOneBit(options.getCapacity() * 2 - 1);
+        this.ring = ByteBuffer.allocateDirect(capacity * AuditEvent.SIZE);
+        this.drainView = ring.asReadOnlyBuffer();
+        this.published = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            published.set(slot, -1);
+        }
+        this.mask = capacity - 1;
+        this.sampleRate = options.getHumanReadableSampleRate();
+        this.sink = sink;
+        this.drainer = new Thread(this::drain, "reservation-audit");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    @Override
+    public void reserved(ReservationDetails reservationDetails) {
+        append(AuditEventType.RESERVED, reservationDetails, null);
+    }
+
+    @Override
+    public void modified(ReservationDetails previous, ReservationDetails current) {
+        append(AuditEventType.MODIFIED, current, previous.getId());
+    }
+
+    @Override
+    public void cancelled(ReservationDetails reservationDetails) {
+        append(AuditEventType.CANCELLED, reservationDetails, null);
+    }
+
+    /**
+     * @return number of events dropped because the ring was full
+     */
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of events handed to the sink
+     */
+    public long getDrainedEvents() {
+        return consumed;
+    }
+
+    /**
+     * Stops accepting events once the ones already published are drained.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(AuditEventType type, ReservationDetails details, UUID previousId) {
+        // read everything before claiming: a claimed slot must be published, or the drain thread stalls on it
+        long timestamp = System.currentTimeMillis();
+        int vehicleType = details.getVehicle().getType().ordinal();
+        UUID reservationId = details.getId();
+        UUID vehicleId = details.getVehicle().getId();
+        long previousMostSigBits = previousId == null ? 0 : previousId.getMostSignificantBits();
+        long previousLeastSigBits = previousId == null ? 0 : previousId.getLeastSignificantBits();
+        int fromDate = (int) details.getFromDate().toEpochDay();
+        int toDate = (int) details.getToDate().toEpochDay();
+        long priceCents = details.getPriceCents();
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (!running || sequence - consumed > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int offset = (int) (sequence & mask) * AuditEvent.SIZE;
+        ring.putLong(offset + AuditEvent.SEQUENCE, sequence)
+                .putLong(offset + AuditEvent.TIMESTAMP, timestamp)
+                .putInt(offset + AuditEvent.EVENT_TYPE, type.ordinal())
+                .putInt(offset + AuditEvent.VEHICLE_TYPE, vehicleType)
+                .putLong(offset + AuditEvent.RESERVATION_ID, reservationId.getMostSignificantBits())
+                .putLong(offset + AuditEvent.RESERVATION_ID + Long.BYTES, reservationId.getLeastSignificantBits())
+                .putLong(offset + AuditEvent.VEHICLE_ID, vehicleId.getMostSignificantBits())
+                .putLong(offset + AuditEvent.VEHICLE_ID + Long.BYTES, vehicleId.getLeastSignificantBits())
+                .putLong(offset + AuditEvent.PREVIOUS_RESERVATION_ID, previousMostSigBits)
+                .putLong(offset + AuditEvent.PREVIOUS_RESERVATION_ID + Long.BYTES, previousLeastSigBits)
+                .putInt(offset + AuditEvent.FROM_DATE, fromDate)
+                .putInt(offset + AuditEvent.TO_DATE, toDate)
+                .putLong(offset + AuditEvent.PRICE, priceCents);
+        published.setRelease((int) (sequence & mask), sequence);
+    }
+
+    private void drain() {
+        long next = 0;
+        while (running || next < claimed.get()) {
+            long end = next;
+            while (published.getAcquire((int) (end & mask)) == end && (end == next || (end & mask) != 0)) {
+                end++;
+            }
+            if (end == next) {
+                if (running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            drainView.limit((int) ((next & mask) + (end - next)) * AuditEvent.SIZE)
+                    .position((int) (next & mask) * AuditEvent.SIZE);
+            try {
+                sink.write(drainView.slice());
+                logSampled(next, end);
+            } catch (RuntimeException e) {
+                log.warn("Audit sink failed, {} events lost", end - next, e);
+            }
+            next = end;
+            consumed = end;
+        }
+    }
+
+    private void logSampled(long from, long to) {
+        if (sampleRate == 0 || !log.isInfoEnabled()) {
+            return;
+        }
+        for (long sequence = from; sequence < to; sequence++) {
+            if (sequence % sampleRate == 0) {
+                drainView.limit(ring.capacity()).position(0);
+                log.info("Audit {}", AuditEvent.read(drainView, (int) (sequence & mask)));
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.domain;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Consecutive start dates on which a vehicle is free for a stay of the searched length.
+ */
+@Data
+public class AvailableSlot {
+    private final Vehicle vehicle;
+    private final LocalDate firstStartDate;
+    private final LocalDate lastStartDate;
+
+    /**
+     * @return every start date of the slot, ascending
+     */
+    public Stream<LocalDate> getStartDates() {
+        return firstStartDate.datesUntil(lastStartDate.plusDays(1));
+    }
+}
@@ -1,14 +0,0 @@
-package org.example.domain;
-
-public class Constants {
-    public static final int VAN_PRICE = 22;
-    public static final double VAN_CLEANING_FEE = 0.1;
-    public static final int SUV_BASE_PRICE = 15;
-    public static final double SUV_MILEAGE_FEE = 0.5;
-    public static final int PICKUP_TRUCK_PRICE = 30;
-    public static final double PICKUP_TRUCK_NEW_DRIVER_SURCHARGE = 0.1;
-    public static final int EXP_DRIVER_MIN_YEARS = 3;
-    public static final int SEDAN_DISCOUNT_PRICE = 15;
-    public static final int SEDAN_DISCOUNT_DAY_LIMIT = 10;
-    public static final int SEDAN_NORMAL_PRICE = 20;
-}
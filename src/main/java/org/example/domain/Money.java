@@ -0,0 +1,63 @@
+package org.example.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Money as a primitive {@code long} amount of cents, so prices are exact decimal values and computing them allocates
+ * nothing. Percentages and multipliers are given in basis points (1/100 of a percent, {@link #BASIS_POINTS_PER_UNIT}
+ * is 100%); applying one to an amount rounds the result half up to a whole cent. Only non-negative amounts occur.
+ */
+public final class Money {
+
+    public static final long CENTS_PER_UNIT = 100;
+    public static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * @return the given share of the amount, rounded half up to a whole cent; amounts are non-negative, so the
+     * truncating division is already the floor
+     */
+    public static long percentOf(long cents, long basisPoints) {
+        return (cents * basisPoints + BASIS_POINTS_PER_UNIT / 2) / BASIS_POINTS_PER_UNIT;
+    }
+
+    /**
+     * @return the amount multiplied by the given factor, rounded half up to a whole cent
+     */
+    public static long multiply(long cents, long factorBasisPoints) {
+        return percentOf(cents, factorBasisPoints);
+    }
+
+    /**
+     * @return the amount in whole units as the double closest to its exact decimal value, for callers which expose
+     * prices as doubles
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has fractions of a cent
+     */
+    public static long parseCents(String amount) {
+        return parseScaled(amount, 2, "cent");
+    }
+
+    /**
+     * @param value a share such as {@code 0.1} for 10%, or a factor such as {@code 1.5}
+     * @throws IllegalArgumentException if the value has fractions of a basis point
+     */
+    public static long parseBasisPoints(String value) {
+        return parseScaled(value, 4, "basis point");
+    }
+
+    private static long parseScaled(String value, int scale, String unit) {
+        try {
+            return new BigDecimal(value.trim()).movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(value + " has fractions of a " + unit);
+        }
+    }
+}
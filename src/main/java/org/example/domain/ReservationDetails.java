@@ -1,6 +1,7 @@
 package org.example.domain;
 
 import lombok.Data;
+import org.example.id.Ids;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
@@ -13,18 +14,36 @@ public class ReservationDetails {
     private final UUID id;
     private final Vehicle vehicle;
 
-    private final double price;
+    private final long priceCents;
     private final LocalDate fromDate;
     private final LocalDate toDate;
 
-    private ReservationDetails(Vehicle vehicle, double price, LocalDate fromDate, LocalDate toDate) {
-        this.id = UUID.randomUUID();
+    private ReservationDetails(Vehicle vehicle, long priceCents, LocalDate fromDate, LocalDate toDate) {
+        this(Ids.next(), vehicle, priceCents, fromDate, toDate);
+    }
+
+    private ReservationDetails(UUID id, Vehicle vehicle, long priceCents, LocalDate fromDate, LocalDate toDate) {
+        this.id = id;
         this.vehicle = vehicle;
-        this.price = price;
+        this.priceCents = priceCents;
         this.fromDate = fromDate;
         this.toDate = toDate;
     }
 
+    /**
+     * Rebuilds a reservation which was already priced and validated, e.g. when reading it back from a storage format.
+     */
+    public static ReservationDetails restore(UUID id, Vehicle vehicle, long priceCents, LocalDate fromDate, LocalDate toDate) {
+        return new ReservationDetails(id, vehicle, priceCents, fromDate, toDate);
+    }
+
+    /**
+     * @return the price in whole units, see {@link Money#toDouble(long)}
+     */
+    public double getPrice() {
+        return Money.toDouble(priceCents);
+    }
+
     public static class ReservationDetailsBuilder {
         private LocalDate fromDate;
         private LocalDate toDate;
@@ -70,12 +89,12 @@ public class ReservationDetails {
         public ReservationDetails build() {
             validateInputs(vehicle, fromDate, toDate, mileage, licenseYears);
             long days = ChronoUnit.DAYS.between(this.fromDate, this.toDate);
-            double price = getPrice(days);
-            return new ReservationDetails(this.vehicle, price, fromDate, toDate);
+            long priceCents = getPriceCents(days);
+            return new ReservationDetails(this.vehicle, priceCents, fromDate, toDate);
         }
 
-        private double getPrice(long days) {
-            return vehicle.getType().calculatePrice(days, this.mileage, this.licenseYears);
+        private long getPriceCents(long days) {
+            return vehicle.getType().calculatePriceCents(this.fromDate, days, this.mileage, this.licenseYears);
         }
     }
 
@@ -0,0 +1,25 @@
+package org.example.domain;
+
+import lombok.Data;
+
+/**
+ * Result of one row of a batch reservation: the reservation made, or the error which prevented it.
+ */
+@Data
+public class ReservationOutcome {
+    private final int row;
+    private final ReservationDetails reservationDetails;
+    private final RuntimeException error;
+
+    public static ReservationOutcome reserved(int row, ReservationDetails reservationDetails) {
+        return new ReservationOutcome(row, reservationDetails, null);
+    }
+
+    public static ReservationOutcome failed(int row, RuntimeException error) {
+        return new ReservationOutcome(row, null, error);
+    }
+
+    public boolean isReserved() {
+        return reservationDetails != null;
+    }
+}
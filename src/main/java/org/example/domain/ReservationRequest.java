@@ -0,0 +1,50 @@
+package org.example.domain;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One row of a batch reservation: either for a specific vehicle or for any vehicle of a type.
+ */
+@Data
+public class ReservationRequest {
+    private final UUID vehicleId;
+    private final VehicleType type;
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final int mileage;
+    private final int licenseYears;
+
+    private ReservationRequest(UUID vehicleId, VehicleType type, LocalDate fromDate, LocalDate toDate,
+                               int mileage, int licenseYears) {
+        this.vehicleId = vehicleId;
+        this.type = type;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.mileage = mileage;
+        this.licenseYears = licenseYears;
+    }
+
+    public static ReservationRequest forVehicle(UUID vehicleId, LocalDate fromDate, LocalDate toDate,
+                                                int mileage, int licenseYears) {
+        if (vehicleId == null) {
+            throw new IllegalArgumentException("Vehicle id must be set");
+        }
+        return new ReservationRequest(vehicleId, null, fromDate, toDate, mileage, licenseYears);
+    }
+
+    public static ReservationRequest forType(VehicleType type, LocalDate fromDate, LocalDate toDate,
+                                             int mileage, int licenseYears) {
+        if (type == null) {
+            throw new IllegalArgumentException("Vehicle type must be set");
+        }
+        return new ReservationRequest(null, type, fromDate, toDate, mileage, licenseYears);
+    }
+
+    public boolean isForVehicle() {
+        return vehicleId != null;
+    }
+}
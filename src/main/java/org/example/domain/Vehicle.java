@@ -1,6 +1,7 @@
 package org.example.domain;
 
 import lombok.Data;
+import org.example.id.Ids;
 
 import java.util.UUID;
 
@@ -10,7 +11,11 @@ public class Vehicle {
     private final UUID id;
 
     public Vehicle(VehicleType type) {
+        this(type, Ids.next());
+    }
+
+    public Vehicle(VehicleType type, UUID id) {
         this.type = type;
-        this.id = UUID.randomUUID();
+        this.id = id;
     }
 }
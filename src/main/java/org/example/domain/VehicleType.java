@@ -1,48 +1,27 @@
 package org.example.domain;
 
-import static org.example.domain.Constants.EXP_DRIVER_MIN_YEARS;
-import static org.example.domain.Constants.PICKUP_TRUCK_NEW_DRIVER_SURCHARGE;
-import static org.example.domain.Constants.PICKUP_TRUCK_PRICE;
-import static org.example.domain.Constants.SEDAN_DISCOUNT_DAY_LIMIT;
-import static org.example.domain.Constants.SEDAN_DISCOUNT_PRICE;
-import static org.example.domain.Constants.SEDAN_NORMAL_PRICE;
-import static org.example.domain.Constants.SUV_BASE_PRICE;
-import static org.example.domain.Constants.SUV_MILEAGE_FEE;
-import static org.example.domain.Constants.VAN_CLEANING_FEE;
-import static org.example.domain.Constants.VAN_PRICE;
+import org.example.pricing.PricingEngine;
+import org.example.pricing.Tariff;
 
-public enum VehicleType {
-    SEDAN {
-        @Override
-        public double calculatePrice(long days, int mileage, int licenseYears) {
-            return days * (days < SEDAN_DISCOUNT_DAY_LIMIT ? SEDAN_NORMAL_PRICE : SEDAN_DISCOUNT_PRICE);
-        }
-    },
-    VAN {
-        @Override
-        public double calculatePrice(long days, int mileage, int licenseYears) {
-            double price = days * VAN_PRICE;
-            return price + price * VAN_CLEANING_FEE; // cleaning fee
-        }
-    },
-    SUV {
-        @Override
-        public double calculatePrice(long days, int mileage, int licenseYears) {
-            return days * SUV_BASE_PRICE + mileage * SUV_MILEAGE_FEE;
-        }
-    },
-    PICKUP_TRUCK {
-        @Override
-        public double calculatePrice(long days, int mileage, int licenseYears) {
-            double price = days * PICKUP_TRUCK_PRICE;
-            if (licenseYears < EXP_DRIVER_MIN_YEARS) {
-                price += price * PICKUP_TRUCK_NEW_DRIVER_SURCHARGE; // surcharge
-            }
-            return price;
-        }
-    };
+import java.time.LocalDate;
 
+public enum VehicleType {
+    SEDAN,
+    VAN,
+    SUV,
+    PICKUP_TRUCK;
 
+    /**
+     * @return the price in cents under the current tariff, without date-dependent modifiers
+     */
+    public long calculatePriceCents(long days, int mileage, int licenseYears) {
+        return PricingEngine.getTariff().price(this, Tariff.UNDATED, days, mileage, licenseYears);
+    }
 
-    public abstract double calculatePrice(long days, int mileage, int licenseYears);
+    /**
+     * @return the price in cents under the current tariff of a rental starting on the given day
+     */
+    public long calculatePriceCents(LocalDate fromDate, long days, int mileage, int licenseYears) {
+        return PricingEngine.getTariff().price(this, fromDate.toEpochDay(), days, mileage, licenseYears);
+    }
 }
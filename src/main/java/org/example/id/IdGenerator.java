@@ -0,0 +1,17 @@
+package org.example.id;
+
+import java.util.UUID;
+
+/**
+ * Source of unique ids, see {@link Ids} for the one used by new vehicles and reservations.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Random version 4 ids of {@link UUID#randomUUID()}, drawn from a shared {@link java.security.SecureRandom}.
+     */
+    IdGenerator RANDOM = UUID::randomUUID;
+
+    UUID next();
+}
@@ -0,0 +1,37 @@
+package org.example.id;
+
+import java.util.UUID;
+
+/**
+ * Holds the {@link IdGenerator} of new vehicles and reservations, a {@link TimeOrderedIdGenerator} unless another one
+ * is installed. Installing is a single volatile write and affects the ids generated afterwards.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator generator = new TimeOrderedIdGenerator();
+
+    private Ids() {
+    }
+
+    public static UUID next() {
+        return generator.next();
+    }
+
+    public static IdGenerator getGenerator() {
+        return generator;
+    }
+
+    public static void use(IdGenerator idGenerator) {
+        if (idGenerator == null) {
+            throw new IllegalArgumentException("Id generator must be set");
+        }
+        generator = idGenerator;
+    }
+
+    /**
+     * Goes back to a new {@link TimeOrderedIdGenerator}.
+     */
+    public static void reset() {
+        generator = new TimeOrderedIdGenerator();
+    }
+}
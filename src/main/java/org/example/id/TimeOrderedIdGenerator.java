@@ -0,0 +1,114 @@
+package org.example.id;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Version 7 UUIDs of RFC 9562: 48 bits of Unix epoch milliseconds, the version, a 12 bit counter in the remaining bits
+ * of the most significant half and 62 random bits. Sorting the ids sorts them by creation time, so ordered indexes and
+ * append-only stores receive them at their tail.
+ * <p>
+ * Every thread keeps its own last millisecond and counter, so the ids of a thread strictly increase; ids of different
+ * threads are ordered by millisecond only and kept apart by their random bits. A thread which draws more than 4096 ids
+ * within a millisecond, or sees the clock step back, keeps counting on from its last id, borrowing from the following
+ * milliseconds. The random bits come from a {@link SecureRandom} DRBG of the thread, seeded once from the system
+ * entropy source, as reservation ids are handed to customers: knowing other ids does not help to guess one, only its
+ * creation time can be read from it, and threads drawing ids never share a generator. {@link UUID#compareTo(UUID)}
+ * compares the halves as signed longs, which orders the timestamps until the year 6429.
+ * <p>
+ * The last timestamp and the generator live in a {@link ThreadLocal}, so on a virtual thread, which runs a single
+ * task, they start over with every task: the ids of one task are still ordered, those of successive tasks by
+ * millisecond only, and every task seeds a generator of its own.
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int VERSION = 7;
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final long VARIANT_BITS = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+    private static final int RANDOM_BLOCK_SIZE = 64 * Long.BYTES;
+
+    private final LongSupplier epochMillisClock;
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param epochMillisClock current time in milliseconds since the Unix epoch
+     */
+    public TimeOrderedIdGenerator(LongSupplier epochMillisClock) {
+        this.epochMillisClock = epochMillisClock;
+    }
+
+    @Override
+    public UUID next() {
+        ThreadState state = threadState.get();
+        long timestamp = Math.max(epochMillisClock.getAsLong() << COUNTER_BITS, state.lastTimestamp + 1);
+        state.lastTimestamp = timestamp;
+        long mostSigBits = (timestamp >>> COUNTER_BITS) << 16 | (long) VERSION << COUNTER_BITS
+                | (timestamp & COUNTER_MASK);
+        return new UUID(mostSigBits, VARIANT_BITS | state.nextRandom() & RANDOM_MASK);
+    }
+
+    public static boolean isTimeOrdered(UUID id) {
+        return id.version() == VERSION && id.variant() == 2;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the id was not generated by this class
+     */
+    public static Instant timestampOf(UUID id) {
+        if (!isTimeOrdered(id)) {
+            throw new IllegalArgumentException("Not a time-ordered id: " + id);
+        }
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+
+    /**
+     * @return id sorting before every time-ordered id of the millisecond of the given instant and after every earlier
+     * one, by {@link UUID#compareTo(UUID)}
+     */
+    public static UUID lowerBound(Instant instant) {
+        return new UUID(instant.toEpochMilli() << 16, Long.MIN_VALUE);
+    }
+
+    /**
+     * @return id sorting after every time-ordered id of the millisecond of the given instant and before every later
+     * one, by {@link UUID#compareTo(UUID)}
+     */
+    public static UUID upperBound(Instant instant) {
+        return new UUID(instant.toEpochMilli() << 16 | 0xFFFF, Long.MAX_VALUE);
+    }
+
+    private static final class ThreadState {
+        /** milliseconds and counter of the last id of the thread, as {@code millis << 12 | counter} */
+        private long lastTimestamp;
+        private final SecureRandom random;
+        /** drawn from the generator a block at a time, each call of a DRBG pays for a hash and a reseed check */
+        private final ByteBuffer randomBlock = ByteBuffer.allocate(RANDOM_BLOCK_SIZE).position(RANDOM_BLOCK_SIZE);
+
+        private ThreadState() {
+            try {
+                // unlike the default NativePRNG, which serializes all instances on one lock, a DRBG is independent
+                this.random = SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG is not available", e);
+            }
+        }
+
+        private long nextRandom() {
+            if (!randomBlock.hasRemaining()) {
+                random.nextBytes(randomBlock.array());
+                randomBlock.clear();
+            }
+            return randomBlock.getLong();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes every metric of a {@link MetricsRegistry} as a read-only attribute of one MBean. The attributes are read
+ * from the registry on every request, so metrics registered after the export show up as well; a request only reads
+ * the metrics it asks for.
+ */
+public class JmxMetricsExporter implements DynamicMBean, AutoCloseable {
+
+    public static final String DEFAULT_OBJECT_NAME = "org.example:type=ReservationMetrics";
+
+    private final MetricsRegistry registry;
+    private final MBeanServer server;
+    private final ObjectName objectName;
+
+    private JmxMetricsExporter(MetricsRegistry registry, MBeanServer server, ObjectName objectName) {
+        this.registry = registry;
+        this.server = server;
+        this.objectName = objectName;
+    }
+
+    /**
+     * Registers the registry with the platform MBean server under {@link #DEFAULT_OBJECT_NAME}.
+     */
+    public static JmxMetricsExporter export(MetricsRegistry registry) {
+        return export(registry, ManagementFactory.getPlatformMBeanServer(), DEFAULT_OBJECT_NAME);
+    }
+
+    public static JmxMetricsExporter export(MetricsRegistry registry, MBeanServer server, String objectName) {
+        try {
+            JmxMetricsExporter exporter = new JmxMetricsExporter(registry, server, new ObjectName(objectName));
+            server.registerMBean(exporter, exporter.objectName);
+            return exporter;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not export metrics as " + objectName, e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = registry.get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Number value = registry.get(attribute);
+            if (value != null) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "Metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        // declared as Number, the exact type would mean reading every metric
+        MBeanAttributeInfo[] attributes = registry.names().stream()
+                .map(name -> new MBeanAttributeInfo(name, Number.class.getName(), name, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "Reservation metrics", attributes, null, null, null);
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Named metrics shared by the instrumented components. Asking twice for the same name returns the same metric, so
+ * components can look their metrics up once and keep them in fields. Implementations may bridge to another metrics
+ * system; {@link SimpleMetricsRegistry} keeps them in memory.
+ */
+public interface MetricsRegistry {
+
+    Counter counter(String name);
+
+    LatencyHistogram histogram(String name);
+
+    /**
+     * Registers a value which is read whenever the metrics are collected; a later registration under the same name
+     * replaces it.
+     */
+    void gauge(String name, LongSupplier value);
+
+    /**
+     * @return the current value of every metric by name, sorted by name; a histogram is flattened into its count,
+     * mean, p50, p99 and max with the name as prefix
+     */
+    Map<String, Number> snapshot();
+
+    /**
+     * Reads a single metric without collecting the others.
+     *
+     * @param name a name as listed by {@link #snapshot()}
+     * @return the current value of the metric, null if there is none of that name
+     */
+    Number get(String name);
+
+    /**
+     * @return the names {@link #snapshot()} lists, sorted, without reading any value
+     */
+    SortedSet<String> names();
+}
@@ -0,0 +1,81 @@
+package org.example.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+    private static final List<String> HISTOGRAM_SUFFIXES = List.of(".count", ".mean", ".p50", ".p99", ".max");
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    @Override
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    @Override
+    public Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.getCount()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".mean", histogram.getMean());
+            values.put(name + ".p50", histogram.getValueAtPercentile(50));
+            values.put(name + ".p99", histogram.getValueAtPercentile(99));
+            values.put(name + ".max", histogram.getMax());
+        });
+        return values;
+    }
+
+    @Override
+    public Number get(String name) {
+        Counter counter = counters.get(name);
+        if (counter != null) {
+            return counter.getCount();
+        }
+        LongSupplier gauge = gauges.get(name);
+        if (gauge != null) {
+            return gauge.getAsLong();
+        }
+        int suffixStart = name.lastIndexOf('.');
+        LatencyHistogram histogram = suffixStart < 0 ? null : histograms.get(name.substring(0, suffixStart));
+        if (histogram == null) {
+            return null;
+        }
+        return switch (name.substring(suffixStart)) {
+            case ".count" -> histogram.getCount();
+            case ".mean" -> histogram.getMean();
+            case ".p50" -> histogram.getValueAtPercentile(50);
+            case ".p99" -> histogram.getValueAtPercentile(99);
+            case ".max" -> histogram.getMax();
+            default -> null;
+        };
+    }
+
+    @Override
+    public SortedSet<String> names() {
+        SortedSet<String> names = new TreeSet<>(counters.keySet());
+        names.addAll(gauges.keySet());
+        histograms.keySet().forEach(name -> HISTOGRAM_SUFFIXES.forEach(suffix -> names.add(name + suffix)));
+        return names;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.pricing;
+
+/**
+ * Price of one vehicle type, compiled from its {@link PricingRules.TypeRules}.
+ */
+@FunctionalInterface
+public interface PriceEvaluator {
+
+    /**
+     * @param fromEpochDay first rental day, or {@link Tariff#UNDATED} to price without date-dependent modifiers
+     * @return the price in cents
+     */
+    long price(long fromEpochDay, long days, int mileage, int licenseYears);
+}
@@ -0,0 +1,43 @@
+package org.example.pricing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the {@link Tariff} every price is computed from. Reloading parses and compiles the new rules first and then
+ * publishes them with a single volatile write, so concurrent pricing sees either the old or the new tariff; rules
+ * which fail to parse leave the current tariff in place.
+ */
+@Slf4j
+public class PricingEngine {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static volatile Tariff tariff = new Tariff(VERSIONS.incrementAndGet(), PricingRules.loadDefault());
+
+    private PricingEngine() {
+    }
+
+    public static Tariff getTariff() {
+        return tariff;
+    }
+
+    public static Tariff reload(Path path) {
+        return reload(PricingRules.load(path));
+    }
+
+    public static Tariff reload(PricingRules rules) {
+        Tariff reloaded = new Tariff(VERSIONS.incrementAndGet(), rules);
+        tariff = reloaded;
+        log.info("Pricing rules reloaded, tariff version:{}", reloaded.getVersion());
+        return reloaded;
+    }
+
+    /**
+     * Goes back to the rules bundled as {@code pricing-rules.properties}.
+     */
+    public static Tariff reset() {
+        return reload(PricingRules.loadDefault());
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.pricing;
+
+import org.example.domain.Money;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+
+/**
+ * Compiles the rules of a vehicle type into one flat {@link PriceEvaluator}: the rental part is specialised into the
+ * cheapest of three lambda shapes (constant rate, day tiers, day-by-day with date modifiers) and the fees and
+ * surcharges are captured as primitive constants, so pricing costs a few integer operations like the hardcoded
+ * per-type methods it replaces.
+ * <p>
+ * Rounding: the cleaning fee and the new-driver surcharge are each computed from the price so far and rounded half
+ * up to a whole cent before they are added; with date modifiers every day's rate is multiplied and rounded half up
+ * on its own, one multiplier at a time.
+ */
+class PricingRuleCompiler {
+
+    private PricingRuleCompiler() {
+    }
+
+    static PriceEvaluator[] compile(PricingRules rules) {
+        VehicleType[] types = VehicleType.values();
+        PriceEvaluator[] evaluators = new PriceEvaluator[types.length];
+        for (VehicleType type : types) {
+            evaluators[type.ordinal()] = compile(rules.getRules(type));
+        }
+        return evaluators;
+    }
+
+    static PriceEvaluator compile(PricingRules.TypeRules rules) {
+        RentalPrice rental = compileRental(rules);
+        long mileageFeeCents = rules.getMileageFeeCents();
+        long cleaningFeeBasisPoints = rules.getCleaningFeeBasisPoints();
+        int newDriverMaxYears = rules.getNewDriverMaxYears();
+        long newDriverSurchargeBasisPoints = rules.getNewDriverSurchargeBasisPoints();
+        return (fromEpochDay, days, mileage, licenseYears) -> {
+            long price = rental.price(fromEpochDay, days) + mileage * mileageFeeCents;
+            price += Money.percentOf(price, cleaningFeeBasisPoints);
+            if (licenseYears < newDriverMaxYears) {
+                price += Money.percentOf(price, newDriverSurchargeBasisPoints);
+            }
+            return price;
+        };
+    }
+
+    private static RentalPrice compileRental(PricingRules.TypeRules rules) {
+        long dailyRateCents = rules.getDailyRateCents();
+        long[] tierMinDays = rules.getTierMinDays();
+        long[] tierRateCents = rules.getTierRateCents();
+        if (rules.isDateDependent()) {
+            long weekendMultiplier = rules.getWeekendMultiplierBasisPoints();
+            List<PricingRules.Season> seasons = rules.getSeasons();
+            return (fromEpochDay, days) -> {
+                long rate = tierRate(dailyRateCents, tierMinDays, tierRateCents, days);
+                if (fromEpochDay == Tariff.UNDATED) {
+                    return days * rate;
+                }
+                long price = 0;
+                for (long day = fromEpochDay; day < fromEpochDay + days; day++) {
+                    price += dayRate(rate, day, weekendMultiplier, seasons);
+                }
+                return price;
+            };
+        }
+        if (tierMinDays.length == 0) {
+            return (fromEpochDay, days) -> days * dailyRateCents;
+        }
+        return (fromEpochDay, days) -> days * tierRate(dailyRateCents, tierMinDays, tierRateCents, days);
+    }
+
+    private static long tierRate(long dailyRateCents, long[] tierMinDays, long[] tierRateCents, long days) {
+        long rate = dailyRateCents;
+        for (int tier = 0; tier < tierMinDays.length && days >= tierMinDays[tier]; tier++) {
+            rate = tierRateCents[tier];
+        }
+        return rate;
+    }
+
+    private static long dayRate(long rate, long epochDay, long weekendMultiplier, List<PricingRules.Season> seasons) {
+        // 1970-01-01 was a Thursday, so Monday is 0 and the weekend is 5 and 6
+        if (Math.floorMod(epochDay + 3, 7) >= 5) {
+            rate = Money.multiply(rate, weekendMultiplier);
+        }
+        if (!seasons.isEmpty()) {
+            MonthDay monthDay = MonthDay.from(LocalDate.ofEpochDay(epochDay));
+            for (PricingRules.Season season : seasons) {
+                if (season.contains(monthDay)) {
+                    rate = Money.multiply(rate, season.getMultiplierBasisPoints());
+                }
+            }
+        }
+        return rate;
+    }
+
+    @FunctionalInterface
+    private interface RentalPrice {
+        long price(long fromEpochDay, long days);
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.pricing;
+
+import lombok.Value;
+import org.example.domain.Money;
+import org.example.domain.VehicleType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Declarative pricing rules of every vehicle type, read from a properties file whose keys are
+ * {@code <VEHICLE_TYPE>.<rule>}. See {@code pricing-rules.properties} for the supported rules. Amounts are held in
+ * cents and shares and multipliers in basis points, see {@link Money}.
+ */
+@Value
+public class PricingRules {
+
+    static final String DEFAULT_RESOURCE = "/pricing-rules.properties";
+
+    private static final DateTimeFormatter MONTH_DAY = DateTimeFormatter.ofPattern("MM-dd");
+
+    Map<VehicleType, TypeRules> rulesByType;
+
+    public static PricingRules load(Path path) {
+        try (Reader reader = Files.newBufferedReader(path)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return parse(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static PricingRules loadDefault() {
+        try (InputStream input = PricingRules.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing pricing rules " + DEFAULT_RESOURCE);
+            }
+            Properties properties = new Properties();
+            properties.load(input);
+            return parse(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a rule is unknown or malformed, or a vehicle type has no daily rate
+     */
+    public static PricingRules parse(Properties properties) {
+        Map<VehicleType, TypeRulesBuilder> builders = new EnumMap<>(VehicleType.class);
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.indexOf('.');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Pricing rule without vehicle type: " + key);
+            }
+            VehicleType type = parseType(key.substring(0, separator));
+            String rule = key.substring(separator + 1);
+            String value = properties.getProperty(key).trim();
+            builders.computeIfAbsent(type, k -> new TypeRulesBuilder()).apply(key, rule, value);
+        }
+        Map<VehicleType, TypeRules> rulesByType = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VehicleType.values()) {
+            TypeRulesBuilder builder = builders.get(type);
+            if (builder == null || builder.dailyRateCents < 0) {
+                throw new IllegalArgumentException("No daily rate for " + type);
+            }
+            rulesByType.put(type, builder.build());
+        }
+        return new PricingRules(rulesByType);
+    }
+
+    public TypeRules getRules(VehicleType type) {
+        return rulesByType.get(type);
+    }
+
+    @Value
+    public static class TypeRules {
+        long dailyRateCents;
+        /**
+         * Ascending minimum rental lengths of the day tiers, {@code tierRateCents} holds the daily rate of each.
+         */
+        long[] tierMinDays;
+        long[] tierRateCents;
+        long mileageFeeCents;
+        long cleaningFeeBasisPoints;
+        int newDriverMaxYears;
+        long newDriverSurchargeBasisPoints;
+        long weekendMultiplierBasisPoints;
+        List<Season> seasons;
+
+        public boolean isDateDependent() {
+            return weekendMultiplierBasisPoints != Money.BASIS_POINTS_PER_UNIT || !seasons.isEmpty();
+        }
+    }
+
+    /**
+     * Multiplier of the daily rate between two days of every year, both inclusive; a season whose last day is before
+     * its first one spans the turn of the year.
+     */
+    @Value
+    public static class Season {
+        MonthDay firstDay;
+        MonthDay lastDay;
+        long multiplierBasisPoints;
+
+        boolean contains(MonthDay day) {
+            if (firstDay.isAfter(lastDay)) {
+                return !day.isBefore(firstDay) || !day.isAfter(lastDay);
+            }
+            return !day.isBefore(firstDay) && !day.isAfter(lastDay);
+        }
+    }
+
+    private static VehicleType parseType(String name) {
+        try {
+            return VehicleType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown vehicle type in pricing rules: " + name);
+        }
+    }
+
+    private static class TypeRulesBuilder {
+        private long dailyRateCents = -1;
+        private long[] tierMinDays = new long[0];
+        private long[] tierRateCents = new long[0];
+        private long mileageFeeCents;
+        private long cleaningFeeBasisPoints;
+        private int newDriverMaxYears;
+        private long newDriverSurchargeBasisPoints;
+        private long weekendMultiplierBasisPoints = Money.BASIS_POINTS_PER_UNIT;
+        private final List<Season> seasons = new ArrayList<>();
+
+        private void apply(String key, String rule, String value) {
+            try {
+                if (rule.startsWith("season.")) {
+                    seasons.add(parseSeason(value));
+                    return;
+                }
+                switch (rule) {
+                    case "dailyRate" -> dailyRateCents = parseCents(value);
+                    case "dayTiers" -> parseTiers(value);
+                    case "mileageFee" -> mileageFeeCents = parseCents(value);
+                    case "cleaningFee" -> cleaningFeeBasisPoints = parseBasisPoints(value);
+                    case "newDriverSurcharge" -> {
+                        String[] parts = split(value, ":");
+                        newDriverMaxYears = Integer.parseInt(parts[0]);
+                        newDriverSurchargeBasisPoints = parseBasisPoints(parts[1]);
+                    }
+                    case "weekendMultiplier" -> weekendMultiplierBasisPoints = parseBasisPoints(value);
+                    default -> throw new IllegalArgumentException("unknown rule");
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid pricing rule " + key + "=" + value + ": " + e.getMessage(), e);
+            }
+        }
+
+        private void parseTiers(String value) {
+            String[] tiers = value.split(",");
+            tierMinDays = new long[tiers.length];
+            tierRateCents = new long[tiers.length];
+            for (int i = 0; i < tiers.length; i++) {
+                String[] parts = split(tiers[i], ":");
+                tierMinDays[i] = Long.parseLong(parts[0]);
+                tierRateCents[i] = parseCents(parts[1]);
+                if (i > 0 && tierMinDays[i] <= tierMinDays[i - 1]) {
+                    throw new IllegalArgumentException("tiers must be in ascending order of days");
+                }
+            }
+        }
+
+        private static Season parseSeason(String value) {
+            String[] parts = split(value, ":");
+            String[] days = parts[0].split("\\.\\.");
+            if (days.length != 2) {
+                throw new IllegalArgumentException("expected <MM-dd>..<MM-dd>:<multiplier>");
+            }
+            return new Season(MonthDay.parse(days[0].trim(), MONTH_DAY), MonthDay.parse(days[1].trim(), MONTH_DAY),
+                    parseBasisPoints(parts[1]));
+        }
+
+        private static String[] split(String value, String separator) {
+            String[] parts = value.split(separator);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("expected two values separated by '" + separator + "'");
+            }
+            return Arrays.stream(parts).map(String::trim).toArray(String[]::new);
+        }
+
+        private static long parseCents(String value) {
+            return requireNonNegative(Money.parseCents(value));
+        }
+
+        private static long parseBasisPoints(String value) {
+            return requireNonNegative(Money.parseBasisPoints(value));
+        }
+
+        private static long requireNonNegative(long amount) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("amounts must be non-negative");
+            }
+            return amount;
+        }
+
+        private TypeRules build() {
+            return new TypeRules(dailyRateCents, tierMinDays, tierRateCents, mileageFeeCents, cleaningFeeBasisPoints,
+                    newDriverMaxYears, newDriverSurchargeBasisPoints, weekendMultiplierBasisPoints, List.copyOf(seasons));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.pricing;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.domain.VehicleType;
+
+/**
+ * Immutable, compiled set of pricing rules. A reload builds a new tariff, so a price is always computed from one
+ * consistent set of rules.
+ */
+public class Tariff {
+
+    /**
+     * Start day which prices a rental without the date-dependent modifiers.
+     */
+    public static final long UNDATED = Long.MIN_VALUE;
+
+    @Getter
+    private final long version;
+    @Getter
+    private final boolean dateDependent;
+    private final PriceEvaluator[] evaluators;
+    private final UndatedRateCard undatedRateCard;
+    @Getter(AccessLevel.PACKAGE)
+    private final PricingRules rules;
+
+    Tariff(long version, PricingRules rules) {
+        this.version = version;
+        this.dateDependent = rules.getRulesByType().values().stream().anyMatch(PricingRules.TypeRules::isDateDependent);
+        this.evaluators = PricingRuleCompiler.compile(rules);
+        this.undatedRateCard = new UndatedRateCard(rules);
+        this.rules = rules;
+    }
+
+    /**
+     * @return the price in cents
+     */
+    public long price(VehicleType type, long fromEpochDay, long days, int mileage, int licenseYears) {
+        return evaluators[type.ordinal()].price(fromEpochDay, days, mileage, licenseYears);
+    }
+
+    /**
+     * Prices every type at once, as {@link #price} would type by type.
+     *
+     * @param fromEpochDay   first rental day, or {@link #UNDATED}
+     * @param centsByOrdinal receives the price of every type at the index of its {@link VehicleType#ordinal()}
+     */
+    public void priceAll(long fromEpochDay, long days, int mileage, int licenseYears, long[] centsByOrdinal) {
+        if (fromEpochDay == UNDATED || !dateDependent) {
+            undatedRateCard.priceAll(days, mileage, licenseYears, centsByOrdinal);
+            return;
+        }
+        for (int ordinal = 0; ordinal < evaluators.length; ordinal++) {
+            centsByOrdinal[ordinal] = evaluators[ordinal].price(fromEpochDay, days, mileage, licenseYears);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.pricing;
+
+import org.example.domain.Money;
+import org.example.domain.VehicleType;
+
+/**
+ * The rules of all vehicle types flattened into one primitive array, a row per type in the order of
+ * {@link VehicleType#ordinal()}, so an undated request is priced for every type in one loop instead of a compiled
+ * {@link PriceEvaluator} call per type. Day tiers are resolved up front into the daily rate of every rental length up
+ * to {@link #RATE_TABLE_DAYS}. Rounds exactly like {@link PricingRuleCompiler}, the prices are those of the
+ * evaluators with {@link Tariff#UNDATED}.
+ */
+final class UndatedRateCard {
+
+    /**
+     * Rental lengths with a daily rate of their own; longer rentals are priced by walking the tiers if a type has a
+     * tier beyond it.
+     */
+    static final int RATE_TABLE_DAYS = 63;
+
+    private static final int TYPE_COUNT = VehicleType.values().length;
+    private static final int MILEAGE_FEE = RATE_TABLE_DAYS + 1;
+    private static final int CLEANING_FEE = MILEAGE_FEE + 1;
+    private static final int NEW_DRIVER_MAX_YEARS = CLEANING_FEE + 1;
+    private static final int NEW_DRIVER_SURCHARGE = NEW_DRIVER_MAX_YEARS + 1;
+    private static final int ROW_SIZE = NEW_DRIVER_SURCHARGE + 1;
+
+    /**
+     * A row per type in ordinal order: the daily rate of every rental length up to {@link #RATE_TABLE_DAYS}, then
+     * the fees, so a quote touches a single array.
+     */
+    private final long[] rows = new long[TYPE_COUNT * ROW_SIZE];
+    private final PricingRules.TypeRules[] rules = new PricingRules.TypeRules[TYPE_COUNT];
+    private final boolean tiersBeyondTable;
+
+    UndatedRateCard(PricingRules pricingRules) {
+        boolean tiersBeyondTable = false;
+        for (VehicleType type : VehicleType.values()) {
+            PricingRules.TypeRules typeRules = pricingRules.getRules(type);
+            int ordinal = type.ordinal();
+            int row = ordinal * ROW_SIZE;
+            rules[ordinal] = typeRules;
+            for (int days = 0; days <= RATE_TABLE_DAYS; days++) {
+                rows[row + days] = tierRate(typeRules, days);
+            }
+            long[] tierMinDays = typeRules.getTierMinDays();
+            tiersBeyondTable |= tierMinDays.length > 0 && tierMinDays[tierMinDays.length - 1] > RATE_TABLE_DAYS;
+            rows[row + MILEAGE_FEE] = typeRules.getMileageFeeCents();
+            rows[row + CLEANING_FEE] = typeRules.getCleaningFeeBasisPoints();
+            rows[row + NEW_DRIVER_MAX_YEARS] = typeRules.getNewDriverMaxYears();
+            rows[row + NEW_DRIVER_SURCHARGE] = typeRules.getNewDriverSurchargeBasisPoints();
+        }
+        this.tiersBeyondTable = tiersBeyondTable;
+    }
+
+    /**
+     * @param centsByOrdinal receives the price of every type at the index of its ordinal
+     */
+    void priceAll(long days, int mileage, int licenseYears, long[] centsByOrdinal) {
+        long[] rows = this.rows;
+        boolean rateFromTable = days <= RATE_TABLE_DAYS || !tiersBeyondTable;
+        int rateDay = (int) Math.min(days, RATE_TABLE_DAYS);
+        // a constant trip count lets the JIT unroll the loop, so the branches on the rules of a type are predicted
+        for (int ordinal = 0; ordinal < TYPE_COUNT; ordinal++) {
+            int row = ordinal * ROW_SIZE;
+            long rate = rateFromTable ? rows[row + rateDay] : tierRate(rules[ordinal], days);
+            long price = days * rate + mileage * rows[row + MILEAGE_FEE];
+            if (rows[row + CLEANING_FEE] != 0) {
+                price += Money.percentOf(price, rows[row + CLEANING_FEE]);
+            }
+            if (rows[row + NEW_DRIVER_SURCHARGE] != 0) {
+                // a 0/1 factor from the sign bit as in BulkQuotes, license years follow no pattern to predict
+                long newDriver = (licenseYears - rows[row + NEW_DRIVER_MAX_YEARS]) >>> 63;
+                price += Money.percentOf(price, newDriver * rows[row + NEW_DRIVER_SURCHARGE]);
+            }
+            centsByOrdinal[ordinal] = price;
+        }
+    }
+
+    private static long tierRate(PricingRules.TypeRules rules, long days) {
+        long rate = rules.getDailyRateCents();
+        long[] tierMinDays = rules.getTierMinDays();
+        for (int tier = 0; tier < tierMinDays.length && days >= tierMinDays[tier]; tier++) {
+            rate = rules.getTierRateCents()[tier];
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.respository;
+
+import org.example.analytics.FleetCounters;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Decorates a {@link ReservationRepository} with {@link FleetCounters} which are updated incrementally on every
+ * write. Writes of the same vehicle are serialized on a lock stripe, so a removed or replaced reservation is taken
+ * off the counters exactly as it was added.
+ */
+public class AnalyticsReservationRepository implements ReservationRepository {
+
+    private final ReservationRepository delegate;
+    private final FleetCounters counters;
+    private final VehicleLockStripes vehicleLocks;
+
+    /**
+     * Counts the reservations the delegate already holds on the common fork-join pool; it must not be written to
+     * before the constructor returns.
+     */
+    public AnalyticsReservationRepository(ReservationRepository delegate) {
+        this.delegate = delegate;
+        this.counters = new FleetCounters();
+        this.vehicleLocks = new VehicleLockStripes();
+        delegate.findAll().parallel().forEach(counters::added);
+    }
+
+    public FleetCounters getCounters() {
+        return counters;
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            delegate.save(reservationDetails);
+            counters.added(reservationDetails);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            if (!delegate.tryReserve(reservationDetails)) {
+                return false;
+            }
+            counters.added(reservationDetails);
+            return true;
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        ReservationDetails reservationDetails = delegate.findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            ReservationDetails removed = delegate.remove(reservationDetailsId);
+            counters.removed(removed);
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails reservationDetails = delegate.findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            // re-read under the lock, a concurrent replace may have swapped the reservation since
+            ReservationDetails current = delegate.findById(reservationDetailsId)
+                    .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+            if (!delegate.replace(reservationDetailsId, replacement)) {
+                return false;
+            }
+            counters.removed(current);
+            counters.added(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return delegate.findById(reservationDetailsId);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        return delegate.isAvailableOnDates(vehicleId, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                              LocalDate fromDate, LocalDate toDate) {
+        return delegate.findAvailableVehicles(type, vehicles, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findPickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findReturnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public long exportTo(WritableByteChannel channel, ExportFormat format) {
+        return delegate.exportTo(channel, format);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        counters.clear();
+    }
+}
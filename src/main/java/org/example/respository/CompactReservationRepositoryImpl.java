@@ -0,0 +1,388 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Memory-compact storage: every vehicle gets a dense int ordinal and every reservation is a slot in parallel primitive
+ * arrays (reservation id, vehicle ordinal, from/to epoch-day, price), about 48 bytes per booking including the id
+ * index. {@link ReservationDetails} objects are only materialized when they are handed out.
+ * <p>
+ * The reservations of a vehicle are chained through their slots, so availability checks walk the booking history of
+ * that vehicle. Reads share a read lock, writes take the write lock.
+ * <p>
+ * The lock is global on purpose: every write touches state shared by all vehicles, the slot columns which grow by
+ * reallocation, the free-slot list and the id index, so a lock per vehicle ordinal would still need a global one
+ * around them. Writes of different vehicles therefore serialize. Under concurrent writers, partition the fleet with
+ * {@code new ShardedReservationRepository(shardCount, CompactReservationRepositoryImpl::new)}: every shard owns a
+ * compact store of its own, touched by the shard's thread only.
+ */
+public class CompactReservationRepositoryImpl implements ReservationRepository {
+
+    private static final int NONE = -1;
+    private static final int TOMBSTONE = -2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> vehicleOrdinals = new HashMap<>();
+    private Vehicle[] vehicleByOrdinal;
+    private int[] firstSlotByVehicleOrdinal;
+
+    private long[] idMostSigBits;
+    private long[] idLeastSigBits;
+    private int[] vehicleOrdinalBySlot;
+    private int[] fromEpochDays;
+    private int[] toEpochDays;
+    private long[] priceCents;
+    /** next reservation of the same vehicle, or the next free slot for free slots */
+    private int[] nextSlots;
+    private int usedSlots;
+    private int freeSlot;
+
+    /** open addressing table from reservation id to slot, NONE for empty entries */
+    private int[] slotIndex;
+    private int slotIndexEntries;
+
+    public CompactReservationRepositoryImpl() {
+        reset();
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        if (!tryReserve(reservationDetails)) {
+            throw new ReservationNotPossibleException(reservationDetails.getVehicle().getId(),
+                    reservationDetails.getFromDate(), reservationDetails.getToDate());
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        int fromDay = (int) reservationDetails.getFromDate().toEpochDay();
+        int toDay = (int) reservationDetails.getToDate().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            int vehicleOrdinal = ordinalOf(reservationDetails.getVehicle());
+            if (!isFree(vehicleOrdinal, fromDay, toDay, NONE)) {
+                return false;
+            }
+            int slot = allocateSlot();
+            UUID id = reservationDetails.getId();
+            idMostSigBits[slot] = id.getMostSignificantBits();
+            idLeastSigBits[slot] = id.getLeastSignificantBits();
+            vehicleOrdinalBySlot[slot] = vehicleOrdinal;
+            fromEpochDays[slot] = fromDay;
+            toEpochDays[slot] = toDay;
+            priceCents[slot] = reservationDetails.getPriceCents();
+            nextSlots[slot] = firstSlotByVehicleOrdinal[vehicleOrdinal];
+            firstSlotByVehicleOrdinal[vehicleOrdinal] = slot;
+            indexSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        lock.writeLock().lock();
+        try {
+            int indexPosition = findIndexPosition(reservationDetailsId);
+            if (indexPosition == NONE) {
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            int slot = slotIndex[indexPosition];
+            ReservationDetails removed = materialize(slot);
+            slotIndex[indexPosition] = TOMBSTONE;
+            unlinkFromVehicle(slot);
+            nextSlots[slot] = freeSlot;
+            freeSlot = slot;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the slot of the reservation in place; the slot stays in the chain of its vehicle.
+     */
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        int fromDay = (int) replacement.getFromDate().toEpochDay();
+        int toDay = (int) replacement.getToDate().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            int indexPosition = findIndexPosition(reservationDetailsId);
+            if (indexPosition == NONE) {
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            int slot = slotIndex[indexPosition];
+            int vehicleOrdinal = vehicleOrdinalBySlot[slot];
+            if (!vehicleByOrdinal[vehicleOrdinal].getId().equals(replacement.getVehicle().getId())) {
+                throw new IllegalArgumentException("Replacement must be for the same vehicle");
+            }
+            if (!isFree(vehicleOrdinal, fromDay, toDay, slot)) {
+                return false;
+            }
+            slotIndex[indexPosition] = TOMBSTONE;
+            UUID id = replacement.getId();
+            idMostSigBits[slot] = id.getMostSignificantBits();
+            idLeastSigBits[slot] = id.getLeastSignificantBits();
+            fromEpochDays[slot] = fromDay;
+            toEpochDays[slot] = toDay;
+            priceCents[slot] = replacement.getPriceCents();
+            indexSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        lock.readLock().lock();
+        try {
+            int indexPosition = findIndexPosition(reservationDetailsId);
+            return indexPosition == NONE ? Optional.empty() : Optional.of(materialize(slotIndex[indexPosition]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        lock.readLock().lock();
+        try {
+            List<ReservationDetails> reservations = new ArrayList<>(usedSlots);
+            for (int indexPosition = 0; indexPosition < slotIndex.length; indexPosition++) {
+                if (slotIndex[indexPosition] >= 0) {
+                    reservations.add(materialize(slotIndex[indexPosition]));
+                }
+            }
+            return reservations.stream();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exports a point-in-time view: the columns are copied under the read lock, which takes a few milliseconds per
+     * million reservations, and encoded after it is released, so writes continue during the export.
+     */
+    @Override
+    public long exportTo(WritableByteChannel channel, ExportFormat format) {
+        int[] liveSlots;
+        int liveSlotCount = 0;
+        long[] idHighs;
+        long[] idLows;
+        int[] ordinals;
+        int[] fromDays;
+        int[] toDays;
+        long[] exportedPrices;
+        Vehicle[] vehicles;
+        lock.readLock().lock();
+        try {
+            liveSlots = new int[usedSlots];
+            for (int slot : slotIndex) {
+                if (slot >= 0) {
+                    liveSlots[liveSlotCount++] = slot;
+                }
+            }
+            idHighs = Arrays.copyOf(idMostSigBits, usedSlots);
+            idLows = Arrays.copyOf(idLeastSigBits, usedSlots);
+            ordinals = Arrays.copyOf(vehicleOrdinalBySlot, usedSlots);
+            fromDays = Arrays.copyOf(fromEpochDays, usedSlots);
+            toDays = Arrays.copyOf(toEpochDays, usedSlots);
+            exportedPrices = Arrays.copyOf(priceCents, usedSlots);
+            vehicles = Arrays.copyOf(vehicleByOrdinal, vehicleOrdinals.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        ReservationExportWriter writer = new ReservationExportWriter(channel, format);
+        for (int i = 0; i < liveSlotCount; i++) {
+            int slot = liveSlots[i];
+            Vehicle vehicle = vehicles[ordinals[slot]];
+            writer.write(idHighs[slot], idLows[slot], vehicle.getId().getMostSignificantBits(),
+                    vehicle.getId().getLeastSignificantBits(), vehicle.getType().ordinal(), fromDays[slot],
+                    toDays[slot], exportedPrices[slot]);
+        }
+        return writer.finish();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        lock.readLock().lock();
+        try {
+            Integer vehicleOrdinal = vehicleOrdinals.get(vehicleId);
+            return vehicleOrdinal == null
+                    || isFree(vehicleOrdinal, (int) fromDate.toEpochDay(), (int) toDate.toEpochDay(), NONE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reset() {
+        vehicleOrdinals.clear();
+        vehicleByOrdinal = new Vehicle[INITIAL_CAPACITY];
+        firstSlotByVehicleOrdinal = new int[INITIAL_CAPACITY];
+        idMostSigBits = new long[INITIAL_CAPACITY];
+        idLeastSigBits = new long[INITIAL_CAPACITY];
+        vehicleOrdinalBySlot = new int[INITIAL_CAPACITY];
+        fromEpochDays = new int[INITIAL_CAPACITY];
+        toEpochDays = new int[INITIAL_CAPACITY];
+        priceCents = new long[INITIAL_CAPACITY];
+        nextSlots = new int[INITIAL_CAPACITY];
+        usedSlots = 0;
+        freeSlot = NONE;
+        slotIndex = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(slotIndex, NONE);
+        slotIndexEntries = 0;
+    }
+
+    /**
+     * Same inclusive rules as {@link InMemoryReservationRepositoryImpl}: the ranges must not share a single day.
+     *
+     * @param ignoredSlot slot which is not checked, NONE to check all
+     */
+    private boolean isFree(int vehicleOrdinal, int fromDay, int toDay, int ignoredSlot) {
+        for (int slot = firstSlotByVehicleOrdinal[vehicleOrdinal]; slot != NONE; slot = nextSlots[slot]) {
+            if (slot != ignoredSlot && fromEpochDays[slot] <= toDay && fromDay <= toEpochDays[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int ordinalOf(Vehicle vehicle) {
+        Integer ordinal = vehicleOrdinals.get(vehicle.getId());
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int newOrdinal = vehicleOrdinals.size();
+        if (newOrdinal == vehicleByOrdinal.length) {
+            vehicleByOrdinal = Arrays.copyOf(vehicleByOrdinal, newOrdinal * 2);
+            firstSlotByVehicleOrdinal = Arrays.copyOf(firstSlotByVehicleOrdinal, newOrdinal * 2);
+        }
+        vehicleByOrdinal[newOrdinal] = vehicle;
+        firstSlotByVehicleOrdinal[newOrdinal] = NONE;
+        vehicleOrdinals.put(vehicle.getId(), newOrdinal);
+        return newOrdinal;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = nextSlots[slot];
+            return slot;
+        }
+        if (usedSlots == priceCents.length) {
+            int capacity = usedSlots + (usedSlots >> 1);
+            idMostSigBits = Arrays.copyOf(idMostSigBits, capacity);
+            idLeastSigBits = Arrays.copyOf(idLeastSigBits, capacity);
+            vehicleOrdinalBySlot = Arrays.copyOf(vehicleOrdinalBySlot, capacity);
+            fromEpochDays = Arrays.copyOf(fromEpochDays, capacity);
+            toEpochDays = Arrays.copyOf(toEpochDays, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            nextSlots = Arrays.copyOf(nextSlots, capacity);
+        }
+        return usedSlots++;
+    }
+
+    private void unlinkFromVehicle(int slot) {
+        int vehicleOrdinal = vehicleOrdinalBySlot[slot];
+        if (firstSlotByVehicleOrdinal[vehicleOrdinal] == slot) {
+            firstSlotByVehicleOrdinal[vehicleOrdinal] = nextSlots[slot];
+            return;
+        }
+        int previous = firstSlotByVehicleOrdinal[vehicleOrdinal];
+        while (nextSlots[previous] != slot) {
+            previous = nextSlots[previous];
+        }
+        nextSlots[previous] = nextSlots[slot];
+    }
+
+    private void indexSlot(int slot) {
+        // tombstones count as entries, so a rehash also drops them once they pile up
+        if ((slotIndexEntries + 1) * 2 > slotIndex.length) {
+            rehash();
+        }
+        int mask = slotIndex.length - 1;
+        int position = hash(idMostSigBits[slot], idLeastSigBits[slot]) & mask;
+        while (slotIndex[position] >= 0) {
+            position = (position + 1) & mask;
+        }
+        if (slotIndex[position] == NONE) {
+            slotIndexEntries++;
+        }
+        slotIndex[position] = slot;
+    }
+
+    private void rehash() {
+        int[] oldIndex = slotIndex;
+        int liveEntries = 0;
+        for (int slot : oldIndex) {
+            if (slot >= 0) {
+                liveEntries++;
+            }
+        }
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, (liveEntries + 1) * 4));
+        slotIndex = new int[capacity];
+        Arrays.fill(slotIndex, NONE);
+        slotIndexEntries = 0;
+        for (int slot : oldIndex) {
+            if (slot >= 0) {
+                indexSlot(slot);
+            }
+        }
+    }
+
+    private int findIndexPosition(UUID id) {
+        long mostSigBits = id.getMostSignificantBits();
+        long leastSigBits = id.getLeastSignificantBits();
+        int mask = slotIndex.length - 1;
+        int position = hash(mostSigBits, leastSigBits) & mask;
+        for (int slot = slotIndex[position]; slot != NONE; slot = slotIndex[position]) {
+            if (slot >= 0 && idMostSigBits[slot] == mostSigBits && idLeastSigBits[slot] == leastSigBits) {
+                return position;
+            }
+            position = (position + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private ReservationDetails materialize(int slot) {
+        return ReservationDetails.restore(new UUID(idMostSigBits[slot], idLeastSigBits[slot]),
+                vehicleByOrdinal[vehicleOrdinalBySlot[slot]], priceCents[slot],
+                LocalDate.ofEpochDay(fromEpochDays[slot]), LocalDate.ofEpochDay(toEpochDays[slot]));
+    }
+
+    private static int hash(long mostSigBits, long leastSigBits) {
+        long hash = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.respository;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+public class DurabilityOptions {
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final Duration batchInterval;
+    private final int batchSize;
+    private final Duration snapshotInterval;
+
+    private DurabilityOptions(Path directory, FsyncPolicy fsyncPolicy, Duration batchInterval, int batchSize,
+                              Duration snapshotInterval) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.batchInterval = batchInterval;
+        this.batchSize = batchSize;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static class DurabilityOptionsBuilder {
+        private Path directory;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.PER_OPERATION;
+        private Duration batchInterval = Duration.ofMillis(10);
+        private int batchSize = 64;
+        private Duration snapshotInterval;
+
+        public static DurabilityOptionsBuilder newInstance() {
+            return new DurabilityOptionsBuilder();
+        }
+
+        public DurabilityOptionsBuilder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public DurabilityOptionsBuilder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+
+        public DurabilityOptionsBuilder batchInterval(Duration batchInterval) {
+            if (batchInterval.isNegative() || batchInterval.isZero()) {
+                throw new IllegalArgumentException("Batch interval must be positive");
+            }
+            this.batchInterval = batchInterval;
+            return this;
+        }
+
+        public DurabilityOptionsBuilder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive");
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param snapshotInterval interval of background snapshots, null to only snapshot on demand
+         */
+        public DurabilityOptionsBuilder snapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        public DurabilityOptions build() {
+            if (directory == null || fsyncPolicy == null) {
+                throw new IllegalArgumentException("Directory and fsync policy must be set");
+            }
+            return new DurabilityOptions(directory, fsyncPolicy, batchInterval, batchSize, snapshotInterval);
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Makes the writes of an in-memory {@link ReservationRepository} durable with a {@link WriteAheadLog} and periodic
+ * snapshots. A snapshot numbered N holds the state after every log segment below N; once it is written those
+ * segments are deleted. Recovery loads the latest snapshot and replays the remaining segments.
+ * <p>
+ * Writes append to the log while holding the lock stripe of their vehicle, so the log has the same per-vehicle order
+ * as the delegate, and wait for the disk according to the {@link FsyncPolicy} after releasing it. A write whose entry
+ * cannot be appended is undone in the delegate before the failure is thrown.
+ */
+public class DurableReservationRepository implements ReservationRepository, Closeable {
+
+    // not @Slf4j, its field would clash with the write-ahead log
+    private static final Logger LOGGER = LoggerFactory.getLogger(DurableReservationRepository.class);
+
+    private static final byte SAVE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte DELETE_ALL = 3;
+    private static final byte REPLACE = 4;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+    private static final String SNAPSHOT_TEMPORARY_SUFFIX = ".tmp";
+    private static final int SNAPSHOT_MAGIC = 0x534e4150;
+    private static final int SNAPSHOT_HEADER_SIZE = 3 * Integer.BYTES;
+
+    private final ReservationRepository delegate;
+    private final DurabilityOptions options;
+    private final VehicleLockStripes vehicleLocks;
+    private final ReadWriteLock snapshotLock;
+    private final WriteAheadLog log;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService snapshotWriter;
+
+    private DurableReservationRepository(ReservationRepository delegate, DurabilityOptions options, long segment) {
+        this.delegate = delegate;
+        this.options = options;
+        this.vehicleLocks = new VehicleLockStripes();
+        this.snapshotLock = new ReentrantReadWriteLock();
+        this.log = WriteAheadLog.open(options.getDirectory(), segment, ReservationRecordCodec.VERSION);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-wal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (options.getFsyncPolicy() != FsyncPolicy.PER_OPERATION) {
+            // bounds the delay of a partial batch of BATCHED_BY_COUNT, forces every batch of BATCHED_BY_TIME
+            long intervalNanos = options.getBatchInterval().toNanos();
+            scheduler.scheduleWithFixedDelay(this::syncWrittenLsn, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+        if (options.getSnapshotInterval() != null) {
+            long intervalNanos = options.getSnapshotInterval().toNanos();
+            scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, intervalNanos, intervalNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Recovers the state persisted in the configured directory into the given, empty repository.
+     */
+    public static DurableReservationRepository open(ReservationRepository delegate, DurabilityOptions options) {
+        Path directory = options.getDirectory();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deleteIncompleteSnapshots(directory);
+        long snapshotSegment = loadLatestSnapshot(directory, delegate);
+        WriteAheadLog.replay(directory, snapshotSegment, ReservationRecordCodec.VERSION,
+                entry -> apply(delegate, entry));
+        long nextSegment = WriteAheadLog.segments(directory).stream()
+                .mapToLong(segment -> segment + 1)
+                .max()
+                .orElse(snapshotSegment);
+        return new DurableReservationRepository(delegate, options, Math.max(nextSegment, snapshotSegment));
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        if (!tryReserve(reservationDetails)) {
+            throw new ReservationNotPossibleException(reservationDetails.getVehicle().getId(),
+                    reservationDetails.getFromDate(), reservationDetails.getToDate());
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        ByteBuffer entry = ByteBuffer.allocate(1 + ReservationRecordCodec.RECORD_SIZE).put(SAVE);
+        ReservationRecordCodec.write(reservationDetails, entry);
+        long lsn;
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+                if (!delegate.tryReserve(reservationDetails)) {
+                    return false;
+                }
+                lsn = appendOrUndo(entry.flip(), () -> delegate.remove(reservationDetails.getId()));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        awaitDurability(lsn);
+        return true;
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        ReservationDetails reservationDetails = findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        ByteBuffer entry = ByteBuffer.allocate(1 + 2 * Long.BYTES)
+                .put(REMOVE)
+                .putLong(reservationDetailsId.getMostSignificantBits())
+                .putLong(reservationDetailsId.getLeastSignificantBits());
+        ReservationDetails removed;
+        long lsn;
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+                removed = delegate.remove(reservationDetailsId);
+                lsn = appendOrUndo(entry.flip(), () -> delegate.save(removed));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        awaitDurability(lsn);
+        return removed;
+    }
+
+    /**
+     * Logged as a single entry, so recovery never sees the old reservation removed without the replacement saved.
+     */
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails reservationDetails = findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        ByteBuffer entry = ByteBuffer.allocate(1 + 2 * Long.BYTES + ReservationRecordCodec.RECORD_SIZE)
+                .put(REPLACE)
+                .putLong(reservationDetailsId.getMostSignificantBits())
+                .putLong(reservationDetailsId.getLeastSignificantBits());
+        ReservationRecordCodec.write(replacement, entry);
+        long lsn;
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+                // re-read under the lock, a concurrent replace may have swapped the reservation since
+                ReservationDetails current = delegate.findById(reservationDetailsId)
+                        .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+                if (!delegate.replace(reservationDetailsId, replacement)) {
+                    return false;
+                }
+                lsn = appendOrUndo(entry.flip(), () -> delegate.replace(replacement.getId(), current));
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        awaitDurability(lsn);
+        return true;
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return delegate.findById(reservationDetailsId);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        return delegate.isAvailableOnDates(vehicleId, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findPickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findReturnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public long exportTo(WritableByteChannel channel, ExportFormat format) {
+        return delegate.exportTo(channel, format);
+    }
+
+    @Override
+    public void deleteAll() {
+        long lsn;
+        snapshotLock.writeLock().lock();
+        try {
+            // logged first, there is nothing to undo a delete-all with
+            lsn = log.append(ByteBuffer.allocate(1).put(DELETE_ALL).flip());
+            delegate.deleteAll();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        awaitDurability(lsn);
+    }
+
+    /**
+     * Copies the current state and rotates the log while writes are blocked, then writes the snapshot and truncates
+     * the log segments it covers on a background thread. Snapshots are written one at a time, in the order they were
+     * taken.
+     *
+     * @return completes once the snapshot is on disk and the covered segments are deleted
+     */
+    public synchronized CompletableFuture<Void> snapshot() {
+        List<ReservationDetails> reservations;
+        long segment;
+        snapshotLock.writeLock().lock();
+        try {
+            reservations = delegate.findAll().toList();
+            segment = log.rotate();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        return CompletableFuture.runAsync(() -> {
+            writeSnapshot(options.getDirectory(), segment, reservations);
+            log.deleteSegmentsBefore(segment);
+            snapshotSegments(options.getDirectory()).stream()
+                    .filter(snapshotSegment -> snapshotSegment < segment)
+                    .forEach(snapshotSegment -> delete(snapshotPath(options.getDirectory(), snapshotSegment)));
+        }, snapshotWriter);
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            snapshotWriter.shutdown();
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    /**
+     * Appends the entry of a change already made to the delegate, and undoes the change if the entry cannot be
+     * appended, so the delegate never holds a change the log has not got. Runs under the lock stripe of the vehicle.
+     */
+    private long appendOrUndo(ByteBuffer entry, Runnable undo) {
+        try {
+            return log.append(entry);
+        } catch (RuntimeException e) {
+            try {
+                undo.run();
+            } catch (RuntimeException undoFailure) {
+                e.addSuppressed(undoFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A periodic task which throws is never run again, so a failed force is logged and retried at the next interval.
+     */
+    private void syncWrittenLsn() {
+        try {
+            log.sync(log.getWrittenLsn());
+        } catch (RuntimeException e) {
+            LOGGER.error("Forcing the reservation log failed, retrying in {}", options.getBatchInterval(), e);
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot().whenComplete((ignored, e) -> {
+                if (e != null) {
+                    LOGGER.error("Writing the reservation snapshot failed", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("Taking the reservation snapshot failed, retrying in {}", options.getSnapshotInterval(), e);
+        }
+    }
+
+    private void awaitDurability(long lsn) {
+        switch (options.getFsyncPolicy()) {
+            case PER_OPERATION -> log.sync(lsn);
+            case BATCHED_BY_COUNT -> {
+                // a partial batch is forced by the scheduler within the batch interval
+                if (lsn % options.getBatchSize() == 0) {
+                    log.sync(lsn);
+                }
+            }
+            case BATCHED_BY_TIME -> {
+                // forced by the scheduler
+            }
+        }
+    }
+
+    private static void apply(ReservationRepository repository, ByteBuffer entry) {
+        switch (entry.get(0)) {
+            case SAVE -> repository.save(ReservationRecordCodec.read(entry, 1));
+            case REMOVE -> repository.remove(new UUID(entry.getLong(1), entry.getLong(1 + Long.BYTES)));
+            case DELETE_ALL -> repository.deleteAll();
+            case REPLACE -> repository.replace(new UUID(entry.getLong(1), entry.getLong(1 + Long.BYTES)),
+                    ReservationRecordCodec.read(entry, 1 + 2 * Long.BYTES));
+            default -> throw new IllegalStateException("Unknown log entry type " + entry.get(0));
+        }
+    }
+
+    /**
+     * Layout: {@code [int magic][int version][int count][records][int crc32 of everything before]}, written to a
+     * temporary file which is moved into place once it is on disk.
+     */
+    private static void writeSnapshot(Path directory, long segment, List<ReservationDetails> reservations) {
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + segment + SNAPSHOT_TEMPORARY_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * ReservationRecordCodec.RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(ReservationRecordCodec.VERSION).putInt(reservations.size());
+            for (ReservationDetails reservationDetails : reservations) {
+                if (buffer.remaining() < ReservationRecordCodec.RECORD_SIZE) {
+                    drain(channel, buffer, crc);
+                }
+                ReservationRecordCodec.write(reservationDetails, buffer);
+            }
+            drain(channel, buffer, crc);
+            buffer.putInt((int) crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, snapshotPath(directory, segment), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return number of the log segment following the loaded snapshot, 0 if there is none
+     */
+    private static long loadLatestSnapshot(Path directory, ReservationRepository repository) {
+        List<Long> snapshots = snapshotSegments(directory);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            ByteBuffer snapshot = readSnapshot(snapshotPath(directory, snapshots.get(i)));
+            if (snapshot != null) {
+                int count = snapshot.getInt(2 * Integer.BYTES);
+                for (int record = 0; record < count; record++) {
+                    repository.save(ReservationRecordCodec.read(snapshot,
+                            SNAPSHOT_HEADER_SIZE + record * ReservationRecordCodec.RECORD_SIZE));
+                }
+                return snapshots.get(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * An intact snapshot of another version, including the ones without a version which stored the price as a
+     * double, is rejected rather than skipped, as skipping it would silently drop the reservations it holds.
+     *
+     * @return the snapshot content, or null if it is incomplete or corrupted
+     */
+    private static ByteBuffer readSnapshot(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int contentSize = snapshot.capacity() - Integer.BYTES;
+            if (contentSize < 2 * Integer.BYTES || snapshot.getInt(0) != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(snapshot.slice(0, contentSize));
+            if ((int) crc.getValue() != snapshot.getInt(contentSize)) {
+                return null;
+            }
+            if (snapshot.getInt(Integer.BYTES) != ReservationRecordCodec.VERSION || contentSize < SNAPSHOT_HEADER_SIZE
+                    || contentSize != SNAPSHOT_HEADER_SIZE
+                    + snapshot.getInt(2 * Integer.BYTES) * ReservationRecordCodec.RECORD_SIZE) {
+                throw new IllegalStateException("Unsupported snapshot format: " + path);
+            }
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Long> snapshotSegments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                            name.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes the temporary files of snapshots whose write was interrupted.
+     */
+    private static void deleteIncompleteSnapshots(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_TEMPORARY_SUFFIX);
+            }).forEach(DurableReservationRepository::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path snapshotPath(Path directory, long segment) {
+        return directory.resolve(SNAPSHOT_PREFIX + segment + SNAPSHOT_SUFFIX);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
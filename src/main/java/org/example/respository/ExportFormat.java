@@ -0,0 +1,17 @@
+package org.example.respository;
+
+/**
+ * Layout of a reservation export, see {@link ReservationRepository#exportTo}.
+ */
+public enum ExportFormat {
+    /**
+     * {@code [int magic][int version]} followed by one fixed-width, big-endian record per reservation: reservation id,
+     * vehicle id, vehicle type ordinal, from and to epoch-day and price in cents.
+     */
+    BINARY,
+    /**
+     * ASCII lines {@code id,vehicleId,vehicleType,fromDate,toDate,price} after a header line, dates as ISO-8601 and
+     * prices with two decimals.
+     */
+    CSV
+}
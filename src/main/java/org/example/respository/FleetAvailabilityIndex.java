@@ -0,0 +1,126 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Day-indexed occupancy of the fleet. Every vehicle gets a dense ordinal within its {@link VehicleType} and every
+ * calendar day keeps a {@link BitSet} of the ordinals reserved on that day, so the free vehicles of a date range are
+ * the clear bits of the union of its days.
+ */
+class FleetAvailabilityIndex {
+
+    private final Map<VehicleType, TypeOccupancy> occupancyByType;
+
+    FleetAvailabilityIndex() {
+        this.occupancyByType = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VehicleType.values()) {
+            this.occupancyByType.put(type, new TypeOccupancy());
+        }
+    }
+
+    void occupy(ReservationDetails reservationDetails) {
+        occupancyByType.get(reservationDetails.getVehicle().getType()).update(reservationDetails, true);
+    }
+
+    void release(ReservationDetails reservationDetails) {
+        occupancyByType.get(reservationDetails.getVehicle().getType()).update(reservationDetails, false);
+    }
+
+    /**
+     * @param vehicles candidate vehicles, all of the given type; vehicles outside of this collection are never returned
+     */
+    Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                       LocalDate fromDate, LocalDate toDate) {
+        return occupancyByType.get(type).findAvailableVehicles(vehicles, fromDate.toEpochDay(), toDate.toEpochDay());
+    }
+
+    void clear() {
+        occupancyByType.values().forEach(TypeOccupancy::clear);
+    }
+
+    private static class TypeOccupancy {
+        private final Map<UUID, Integer> ordinalByVehicleId = new HashMap<>();
+        private Vehicle[] vehicleByOrdinal = new Vehicle[16];
+        private int vehicleCount;
+        private Collection<Vehicle> registeredCandidates;
+        private int registeredCandidatesSize;
+        private final Map<Long, BitSet> reservedOrdinalsByEpochDay = new HashMap<>();
+
+        synchronized void update(ReservationDetails reservationDetails, boolean reserved) {
+            int ordinal = register(reservationDetails.getVehicle());
+            long toDay = reservationDetails.getToDate().toEpochDay();
+            for (long day = reservationDetails.getFromDate().toEpochDay(); day <= toDay; day++) {
+                if (reserved) {
+                    reservedOrdinalsByEpochDay.computeIfAbsent(day, k -> new BitSet()).set(ordinal);
+                } else {
+                    BitSet reservedOrdinals = reservedOrdinalsByEpochDay.get(day);
+                    if (reservedOrdinals != null) {
+                        reservedOrdinals.clear(ordinal);
+                        if (reservedOrdinals.isEmpty()) {
+                            reservedOrdinalsByEpochDay.remove(day);
+                        }
+                    }
+                }
+            }
+        }
+
+        Stream<UUID> findAvailableVehicles(Collection<Vehicle> vehicles, long fromDay, long toDay) {
+            BitSet busy = new BitSet();
+            Vehicle[] registeredVehicles;
+            int registeredCount;
+            synchronized (this) {
+                // the vehicle repository hands out the same live set on every call, re-register only when it changes
+                if (vehicles != registeredCandidates || vehicles.size() != registeredCandidatesSize) {
+                    vehicles.forEach(this::register);
+                    registeredCandidates = vehicles;
+                    registeredCandidatesSize = vehicles.size();
+                }
+                for (long day = fromDay; day <= toDay; day++) {
+                    BitSet reservedOrdinals = reservedOrdinalsByEpochDay.get(day);
+                    if (reservedOrdinals != null) {
+                        busy.or(reservedOrdinals);
+                    }
+                }
+                // slots below the count are never rewritten, growing and clearing swap in a new array
+                registeredVehicles = vehicleByOrdinal;
+                registeredCount = vehicleCount;
+            }
+            return IntStream.iterate(busy.nextClearBit(0), ordinal -> ordinal < registeredCount,
+                            ordinal -> busy.nextClearBit(ordinal + 1))
+                    .mapToObj(ordinal -> registeredVehicles[ordinal])
+                    .filter(vehicles::contains)
+                    .map(Vehicle::getId);
+        }
+
+        synchronized void clear() {
+            ordinalByVehicleId.clear();
+            vehicleByOrdinal = new Vehicle[16];
+            vehicleCount = 0;
+            registeredCandidates = null;
+            reservedOrdinalsByEpochDay.clear();
+        }
+
+        private int register(Vehicle vehicle) {
+            return ordinalByVehicleId.computeIfAbsent(vehicle.getId(), id -> {
+                if (vehicleCount == vehicleByOrdinal.length) {
+                    vehicleByOrdinal = Arrays.copyOf(vehicleByOrdinal, vehicleCount * 2);
+                }
+                vehicleByOrdinal[vehicleCount] = vehicle;
+                return vehicleCount++;
+            });
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Decorates a {@link ReservationRepository} with a {@link FleetAvailabilityIndex}, so finding a free vehicle of a type
+ * is a bitmap union over the reserved days instead of an availability check per vehicle. The index is updated
+ * incrementally on every write. Writes of the same vehicle are serialized on a lock stripe, which keeps the index in
+ * the same order as the delegate.
+ */
+public class FleetIndexedReservationRepository implements ReservationRepository {
+
+    private final ReservationRepository delegate;
+    private final FleetAvailabilityIndex availabilityIndex;
+    private final VehicleLockStripes vehicleLocks;
+
+    public FleetIndexedReservationRepository(ReservationRepository delegate) {
+        this.delegate = delegate;
+        this.availabilityIndex = new FleetAvailabilityIndex();
+        this.vehicleLocks = new VehicleLockStripes();
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            delegate.save(reservationDetails);
+            availabilityIndex.occupy(reservationDetails);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            if (!delegate.tryReserve(reservationDetails)) {
+                return false;
+            }
+            availabilityIndex.occupy(reservationDetails);
+            return true;
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        ReservationDetails reservationDetails = delegate.findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            ReservationDetails removed = delegate.remove(reservationDetailsId);
+            availabilityIndex.release(removed);
+            return removed;
+        }
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails reservationDetails = delegate.findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        synchronized (vehicleLocks.lockFor(reservationDetails.getVehicle().getId())) {
+            if (!delegate.replace(reservationDetailsId, replacement)) {
+                return false;
+            }
+            availabilityIndex.release(reservationDetails);
+            availabilityIndex.occupy(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return delegate.findById(reservationDetailsId);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        return delegate.isAvailableOnDates(vehicleId, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                              LocalDate fromDate, LocalDate toDate) {
+        return availabilityIndex.findAvailableVehicles(type, vehicles, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findPickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findReturnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public long exportTo(WritableByteChannel channel, ExportFormat format) {
+        return delegate.exportTo(channel, format);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+        availabilityIndex.clear();
+    }
+}
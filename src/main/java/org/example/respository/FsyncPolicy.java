@@ -0,0 +1,20 @@
+package org.example.respository;
+
+/**
+ * When the write-ahead log of a {@link DurableReservationRepository} forces its writes to disk.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every write waits until it is on disk. Writes arriving during a force share the next one (group commit).
+     */
+    PER_OPERATION,
+    /**
+     * Writes return immediately, the log is forced in the background once per batch interval.
+     */
+    BATCHED_BY_TIME,
+    /**
+     * Writes return immediately, the log is forced by every write which completes a batch of the configured size and
+     * in the background once per batch interval, so the writes of a partial batch are not left unforced.
+     */
+    BATCHED_BY_COUNT
+}
@@ -3,57 +3,156 @@ package org.example.respository;
 import org.example.domain.ReservationDetails;
 import org.example.errors.InvalidReservationIdException;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
+/**
+ * The reservations of a vehicle are guarded by the monitor of their set, so every vehicle is its own lock stripe.
+ */
 public class InMemoryReservationRepositoryImpl implements ReservationRepository {
 
     private final Map<UUID, Set<ReservationDetails>> reservationMapByVehicleUUId;
     private final Map<UUID, ReservationDetails> reservationMapByReservationUUId;
+    private final ReservationDateIndex dateIndex;
 
     public InMemoryReservationRepositoryImpl() {
         this.reservationMapByVehicleUUId = new ConcurrentHashMap<>();
         this.reservationMapByReservationUUId = new ConcurrentHashMap<>();
+        this.dateIndex = new ReservationDateIndex();
     }
 
     @Override
     public void save(ReservationDetails reservationDetails) {
-        this.reservationMapByVehicleUUId
-                .computeIfAbsent(reservationDetails.getVehicle().getId(), k -> new HashSet<>()).add(reservationDetails);
-        this.reservationMapByReservationUUId.put(reservationDetails.getId(), reservationDetails);
+        Set<ReservationDetails> reservationDetailsForVehicle = getReservationsForVehicle(reservationDetails);
+        synchronized (reservationDetailsForVehicle) {
+            reservationDetailsForVehicle.add(reservationDetails);
+            this.reservationMapByReservationUUId.put(reservationDetails.getId(), reservationDetails);
+            this.dateIndex.add(reservationDetails);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        Set<ReservationDetails> reservationDetailsForVehicle = getReservationsForVehicle(reservationDetails);
+        synchronized (reservationDetailsForVehicle) {
+            if (!checkIfDatesAreAvailable(reservationDetailsForVehicle, null,
+                    reservationDetails.getFromDate(), reservationDetails.getToDate())) {
+                return false;
+            }
+            reservationDetailsForVehicle.add(reservationDetails);
+            this.reservationMapByReservationUUId.put(reservationDetails.getId(), reservationDetails);
+            this.dateIndex.add(reservationDetails);
+            return true;
+        }
     }
 
     @Override
     public ReservationDetails remove(UUID reservationDetailsId) {
-        if (reservationMapByReservationUUId.containsKey(reservationDetailsId)) {
-            ReservationDetails reservationDetailsToRemove = reservationMapByReservationUUId.remove(reservationDetailsId);
-            Set<ReservationDetails> reservationDetailsForVehicle
-                    = reservationMapByVehicleUUId.get(reservationDetailsToRemove.getVehicle().getId());
+        ReservationDetails reservationDetailsToRemove = reservationMapByReservationUUId.remove(reservationDetailsId);
+        if (reservationDetailsToRemove == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        Set<ReservationDetails> reservationDetailsForVehicle
+                = reservationMapByVehicleUUId.get(reservationDetailsToRemove.getVehicle().getId());
+        synchronized (reservationDetailsForVehicle) {
             reservationDetailsForVehicle.remove(reservationDetailsToRemove);
-            return reservationDetailsToRemove;
+            dateIndex.remove(reservationDetailsToRemove);
         }
-        throw new InvalidReservationIdException(reservationDetailsId.toString());
+        return reservationDetailsToRemove;
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails current = reservationMapByReservationUUId.get(reservationDetailsId);
+        if (current == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        if (!current.getVehicle().getId().equals(replacement.getVehicle().getId())) {
+            throw new IllegalArgumentException("Replacement must be for the same vehicle");
+        }
+        Set<ReservationDetails> reservationDetailsForVehicle = getReservationsForVehicle(current);
+        synchronized (reservationDetailsForVehicle) {
+            if (!checkIfDatesAreAvailable(reservationDetailsForVehicle, current,
+                    replacement.getFromDate(), replacement.getToDate())) {
+                return false;
+            }
+            // claimed through the id map, a concurrent remove wins the same way
+            if (!reservationMapByReservationUUId.remove(reservationDetailsId, current)) {
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            reservationDetailsForVehicle.remove(current);
+            reservationDetailsForVehicle.add(replacement);
+            this.reservationMapByReservationUUId.put(replacement.getId(), replacement);
+            this.dateIndex.remove(current);
+            this.dateIndex.add(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return Optional.ofNullable(reservationMapByReservationUUId.get(reservationDetailsId));
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return reservationMapByReservationUUId.values().stream();
     }
 
     @Override
     public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
-        return !reservationMapByVehicleUUId.containsKey(vehicleId) ||
-                checkIfDatesAreAvailable(vehicleId, fromDate, toDate);
+        Set<ReservationDetails> reservationDetailsForVehicle = reservationMapByVehicleUUId.get(vehicleId);
+        if (reservationDetailsForVehicle == null) {
+            return true;
+        }
+        synchronized (reservationDetailsForVehicle) {
+            return checkIfDatesAreAvailable(reservationDetailsForVehicle, null, fromDate, toDate);
+        }
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return dateIndex.activeOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return dateIndex.pickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return dateIndex.returnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return dateIndex.createdBetween(from, to);
     }
 
     @Override
     public void deleteAll() {
         reservationMapByVehicleUUId.clear();
         reservationMapByReservationUUId.clear();
+        dateIndex.clear();
+    }
+
+    private Set<ReservationDetails> getReservationsForVehicle(ReservationDetails reservationDetails) {
+        return this.reservationMapByVehicleUUId
+                .computeIfAbsent(reservationDetails.getVehicle().getId(), k -> new HashSet<>());
     }
 
     /**
-     * @return true if given vehicle is not reserved on given dates
+     * @param ignored reservation which is not checked, null to check all
+     * @return true if none of the given reservations overlaps the given dates
      */
-    private boolean checkIfDatesAreAvailable(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
-        Set<ReservationDetails> reservationDetails = reservationMapByVehicleUUId.get(vehicleId);
+    private static boolean checkIfDatesAreAvailable(Set<ReservationDetails> reservationDetails,
+                                                    ReservationDetails ignored, LocalDate fromDate, LocalDate toDate) {
         return reservationDetails.stream()
+                .filter(details -> details != ignored)
                 .allMatch(details -> {
                     LocalDate reservedFrom = details.getFromDate();
                     LocalDate reservedTo = details.getToDate();
@@ -3,62 +3,146 @@ package org.example.respository;
 import org.example.domain.Vehicle;
 import org.example.domain.VehicleType;
 import org.example.errors.VehicleNotFoundException;
-import org.example.errors.VehicleTypeNotFoundException;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * The fleet is one partition per type behind one volatile reference, each an index of its vehicles as a set and by
+ * id. {@link #save(Vehicle)} adds to the current partition, {@link #saveAll(Collection)} copies only the partitions of
+ * the types it loads and swaps in a fleet sharing the other ones, so readers see a bulk load either not at all or in
+ * full. Writers are serialized on the repository. An id belongs to one vehicle type: saving a vehicle under an id
+ * which is already saved with another type is rejected.
+ */
 public class InMemoryVehicleRepository implements VehicleRepository {
-    private final Map<VehicleType, Set<Vehicle>> vehiclesByType;
-    private final Map<UUID, Vehicle> vehicleIdToVehicleTypeMap;
+
+    /** below this many vehicles a bulk load is built on the calling thread */
+    private static final int PARALLEL_LOAD_THRESHOLD = 10_000;
+
+    private volatile Fleet fleet;
 
     public InMemoryVehicleRepository() {
-        this.vehiclesByType = new ConcurrentHashMap<>();
-        this.vehicleIdToVehicleTypeMap = new ConcurrentHashMap<>();
+        this.fleet = new Fleet(new ConcurrentHashMap<>());
     }
 
+    /**
+     * @throws IllegalArgumentException if the id of the vehicle is saved with another type
+     */
     @Override
-    public void save(Vehicle vehicle) {
-        this.vehiclesByType
-                .computeIfAbsent(vehicle.getType(), k -> new HashSet<>()).add(vehicle);
-        this.vehicleIdToVehicleTypeMap.put(vehicle.getId(), vehicle);
+    public synchronized void save(Vehicle vehicle) {
+        checkSavedType(this.fleet, vehicle.getId(), vehicle.getType());
+        this.fleet.partitions.computeIfAbsent(vehicle.getType(), k -> new Partition(0)).add(vehicle);
     }
 
+    /**
+     * Builds a pre-sized copy of the partition of every type among the given vehicles with the common fork-join pool
+     * and publishes it in one step; the partitions of the other types are shared with the current fleet unchanged.
+     *
+     * @throws IllegalArgumentException if an id is given with two types or is saved with another type, nothing is
+     *                                  saved then
+     */
     @Override
-    public void saveAll(Collection<Vehicle> vehicles) {
-        vehicles.forEach(vehicle -> {
-            this.vehiclesByType
-                    .computeIfAbsent(vehicle.getType(), k -> new HashSet<>()).add(vehicle);
-            this.vehicleIdToVehicleTypeMap.put(vehicle.getId(), vehicle);
-        });
+    public synchronized void saveAll(Collection<Vehicle> vehicles) {
+        Fleet current = this.fleet;
+        boolean parallel = vehicles.size() >= PARALLEL_LOAD_THRESHOLD;
+        Stream<Vehicle> loadedIds = parallel ? vehicles.parallelStream() : vehicles.stream();
+        loadedIds.collect(Collectors.toMap(Vehicle::getId, Vehicle::getType, (type, otherType) -> {
+            if (type != otherType) {
+                throw new IllegalArgumentException("Vehicle id given as both " + type + " and " + otherType);
+            }
+            return type;
+        })).forEach((id, type) -> checkSavedType(current, id, type));
+        Stream<Vehicle> loaded = parallel ? vehicles.parallelStream() : vehicles.stream();
+        Map<VehicleType, List<Vehicle>> loadedByType = loaded.collect(Collectors.groupingBy(Vehicle::getType,
+                () -> new EnumMap<>(VehicleType.class), Collectors.toList()));
+
+        Map<VehicleType, Partition> partitions = new ConcurrentHashMap<>(current.partitions);
+        Stream<Map.Entry<VehicleType, List<Vehicle>>> touched = loadedByType.entrySet().stream();
+        if (parallel) {
+            touched = touched.parallel();
+        }
+        touched
+                .map(typeLoad -> {
+                    Partition existing = current.partitions.get(typeLoad.getKey());
+                    Partition partition = new Partition(
+                            (existing == null ? 0 : existing.vehicles.size()) + typeLoad.getValue().size());
+                    if (existing != null) {
+                        existing.vehicles.forEach(partition::add);
+                    }
+                    typeLoad.getValue().forEach(partition::add);
+                    return Map.entry(typeLoad.getKey(), partition);
+                })
+                .toList()
+                .forEach(partition -> partitions.put(partition.getKey(), partition.getValue()));
+        this.fleet = new Fleet(partitions);
     }
 
     @Override
     public Set<Vehicle> getVehiclesByType(VehicleType vehicleType) {
-        return this.vehiclesByType.get(vehicleType);
+        Partition partition = this.fleet.partitions.get(vehicleType);
+        return partition == null ? null : partition.vehicles;
     }
 
     @Override
     public Vehicle getVehicleByVehicleId(UUID id) {
-        checkIfVehicleExists(id);
-        return this.vehicleIdToVehicleTypeMap.get(id);
+        Vehicle vehicle = this.fleet.find(id);
+        if (vehicle == null) {
+            throw new VehicleNotFoundException(id.toString());
+        }
+        return vehicle;
     }
 
     @Override
-    public void deleteAll() {
-        this.vehiclesByType.clear();
-        this.vehicleIdToVehicleTypeMap.clear();
+    public synchronized void deleteAll() {
+        this.fleet = new Fleet(new ConcurrentHashMap<>());
     }
 
-    private void checkIfVehicleExists(UUID id) {
-        if (!this.vehicleIdToVehicleTypeMap.containsKey(id)) {
-            throw new VehicleNotFoundException(id.toString());
+    boolean containsVehicle(UUID id) {
+        return this.fleet.find(id) != null;
+    }
+
+    private static void checkSavedType(Fleet fleet, UUID id, VehicleType type) {
+        Vehicle saved = fleet.find(id);
+        if (saved != null && saved.getType() != type) {
+            throw new IllegalArgumentException("Vehicle " + id + " is already saved as " + saved.getType());
         }
     }
 
-    private void checkIfVehicleTypeExists(UUID id) {
-        if (!this.vehicleIdToVehicleTypeMap.containsKey(id)) {
-            throw new VehicleTypeNotFoundException(id.toString());
+    private static class Fleet {
+        private final Map<VehicleType, Partition> partitions;
+
+        private Fleet(Map<VehicleType, Partition> partitions) {
+            this.partitions = partitions;
+        }
+
+        /**
+         * Looks the id up in every partition, there are only as many as vehicle types.
+         */
+        private Vehicle find(UUID id) {
+            for (Partition partition : partitions.values()) {
+                Vehicle vehicle = partition.vehicleIdToVehicleMap.get(id);
+                if (vehicle != null) {
+                    return vehicle;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Partition {
+        private final Set<Vehicle> vehicles;
+        private final Map<UUID, Vehicle> vehicleIdToVehicleMap;
+
+        private Partition(int expectedSize) {
+            this.vehicles = ConcurrentHashMap.newKeySet(expectedSize);
+            this.vehicleIdToVehicleMap = new ConcurrentHashMap<>(expectedSize);
+        }
+
+        private void add(Vehicle vehicle) {
+            vehicles.add(vehicle);
+            vehicleIdToVehicleMap.put(vehicle.getId(), vehicle);
         }
     }
 }
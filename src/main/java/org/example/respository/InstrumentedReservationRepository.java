@@ -0,0 +1,170 @@
+package org.example.respository;
+
+import org.example.analytics.FleetCounters;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.metrics.Counter;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.MetricsRegistry;
+
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Records the latency of the reads and writes of a {@link ReservationRepository} in nanoseconds and counts their
+ * outcome under {@code reservation.repository.*}. Available vehicles handed out by
+ * {@link #findAvailableVehicles} are counted as candidates, relative to the number of searches this is the number of
+ * vehicles a booking by type had to try. Given the {@link FleetCounters} which the delegate keeps up to date, usually
+ * those of an {@link AnalyticsReservationRepository}, a gauge per type reports the reservations active today; the
+ * decorator itself adds no locking and keeps no state beyond its metrics.
+ */
+public class InstrumentedReservationRepository implements ReservationRepository {
+
+    private static final String PREFIX = "reservation.repository.";
+
+    private final ReservationRepository delegate;
+    private final LatencyHistogram saveLatency;
+    private final LatencyHistogram tryReserveLatency;
+    private final Counter reserved;
+    private final Counter rejected;
+    private final LatencyHistogram removeLatency;
+    private final LatencyHistogram replaceLatency;
+    private final LatencyHistogram availabilityCheckLatency;
+    private final Counter availabilitySearches;
+    private final Counter candidatesScanned;
+
+    /**
+     * Without occupancy gauges.
+     */
+    public InstrumentedReservationRepository(ReservationRepository delegate, MetricsRegistry registry) {
+        this(delegate, registry, null);
+    }
+
+    /**
+     * @param counters updated on every write of the delegate, or null to leave the occupancy gauges out
+     */
+    public InstrumentedReservationRepository(ReservationRepository delegate, MetricsRegistry registry,
+                                             FleetCounters counters) {
+        this.delegate = delegate;
+        this.saveLatency = registry.histogram(PREFIX + "save.latency");
+        this.tryReserveLatency = registry.histogram(PREFIX + "tryReserve.latency");
+        this.reserved = registry.counter(PREFIX + "tryReserve.reserved");
+        this.rejected = registry.counter(PREFIX + "tryReserve.rejected");
+        this.removeLatency = registry.histogram(PREFIX + "remove.latency");
+        this.replaceLatency = registry.histogram(PREFIX + "replace.latency");
+        this.availabilityCheckLatency = registry.histogram(PREFIX + "isAvailableOnDates.latency");
+        this.availabilitySearches = registry.counter(PREFIX + "findAvailableVehicles.searches");
+        this.candidatesScanned = registry.counter(PREFIX + "findAvailableVehicles.candidates");
+        if (counters != null) {
+            for (VehicleType type : VehicleType.values()) {
+                registry.gauge(PREFIX + "occupancy." + type, () -> counters.getOccupancy(type, LocalDate.now()));
+            }
+        }
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        long start = System.nanoTime();
+        try {
+            delegate.save(reservationDetails);
+        } finally {
+            saveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        long start = System.nanoTime();
+        try {
+            boolean saved = delegate.tryReserve(reservationDetails);
+            (saved ? reserved : rejected).increment();
+            return saved;
+        } finally {
+            tryReserveLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.remove(reservationDetailsId);
+        } finally {
+            removeLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        long start = System.nanoTime();
+        try {
+            return delegate.replace(reservationDetailsId, replacement);
+        } finally {
+            replaceLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return delegate.findById(reservationDetailsId);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        long start = System.nanoTime();
+        try {
+            return delegate.isAvailableOnDates(vehicleId, fromDate, toDate);
+        } finally {
+            availabilityCheckLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                              LocalDate fromDate, LocalDate toDate) {
+        availabilitySearches.increment();
+        return delegate.findAvailableVehicles(type, vehicles, fromDate, toDate)
+                .peek(vehicleId -> candidatesScanned.increment());
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return delegate.findActiveOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findPickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return delegate.findReturnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return delegate.findCreatedBetween(from, to);
+    }
+
+    @Override
+    public long exportTo(WritableByteChannel channel, ExportFormat format) {
+        return delegate.exportTo(channel, format);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the reservations of every vehicle in a {@link TreeMap} keyed on the epoch-day of the 'from' date.
+ * Reservations of a vehicle never overlap, so an availability check is a single floor probe: O(log n)
+ * in the booking history of the vehicle instead of a full scan. The map of a vehicle is also its lock.
+ */
+public class IntervalTreeReservationRepositoryImpl implements ReservationRepository {
+
+    private final Map<UUID, NavigableMap<Long, ReservationDetails>> reservationsByVehicleUUId;
+    private final Map<UUID, ReservationDetails> reservationMapByReservationUUId;
+    private final ReservationDateIndex dateIndex;
+
+    public IntervalTreeReservationRepositoryImpl() {
+        this.reservationsByVehicleUUId = new ConcurrentHashMap<>();
+        this.reservationMapByReservationUUId = new ConcurrentHashMap<>();
+        this.dateIndex = new ReservationDateIndex();
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        if (!tryReserve(reservationDetails)) {
+            throw new ReservationNotPossibleException(reservationDetails.getVehicle().getId(),
+                    reservationDetails.getFromDate(), reservationDetails.getToDate());
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        NavigableMap<Long, ReservationDetails> reservations = this.reservationsByVehicleUUId
+                .computeIfAbsent(reservationDetails.getVehicle().getId(), k -> new TreeMap<>());
+        synchronized (reservations) {
+            if (!isFree(reservations, reservationDetails.getFromDate(), reservationDetails.getToDate())) {
+                return false;
+            }
+            reservations.put(reservationDetails.getFromDate().toEpochDay(), reservationDetails);
+            this.reservationMapByReservationUUId.put(reservationDetails.getId(), reservationDetails);
+            this.dateIndex.add(reservationDetails);
+            return true;
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        ReservationDetails reservationDetailsToRemove = reservationMapByReservationUUId.remove(reservationDetailsId);
+        if (reservationDetailsToRemove == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        NavigableMap<Long, ReservationDetails> reservations =
+                reservationsByVehicleUUId.get(reservationDetailsToRemove.getVehicle().getId());
+        synchronized (reservations) {
+            reservations.remove(reservationDetailsToRemove.getFromDate().toEpochDay(), reservationDetailsToRemove);
+            dateIndex.remove(reservationDetailsToRemove);
+        }
+        return reservationDetailsToRemove;
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails current = reservationMapByReservationUUId.get(reservationDetailsId);
+        if (current == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        if (!current.getVehicle().getId().equals(replacement.getVehicle().getId())) {
+            throw new IllegalArgumentException("Replacement must be for the same vehicle");
+        }
+        NavigableMap<Long, ReservationDetails> reservations = reservationsByVehicleUUId
+                .computeIfAbsent(current.getVehicle().getId(), k -> new TreeMap<>());
+        synchronized (reservations) {
+            long currentKey = current.getFromDate().toEpochDay();
+            // taken out for the check, so the replacement may overlap it
+            if (!reservations.remove(currentKey, current)) {
+                // a concurrent remove got here first, putting it back would leave a phantom booking
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            boolean free = isFree(reservations, replacement.getFromDate(), replacement.getToDate());
+            if (!free || !reservationMapByReservationUUId.remove(reservationDetailsId, current)) {
+                reservations.put(currentKey, current);
+                if (!free) {
+                    return false;
+                }
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            reservations.put(replacement.getFromDate().toEpochDay(), replacement);
+            this.reservationMapByReservationUUId.put(replacement.getId(), replacement);
+            this.dateIndex.remove(current);
+            this.dateIndex.add(replacement);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        return Optional.ofNullable(reservationMapByReservationUUId.get(reservationDetailsId));
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return reservationMapByReservationUUId.values().stream();
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        NavigableMap<Long, ReservationDetails> reservations = reservationsByVehicleUUId.get(vehicleId);
+        if (reservations == null) {
+            return true;
+        }
+        synchronized (reservations) {
+            return isFree(reservations, fromDate, toDate);
+        }
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return dateIndex.activeOn(date);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return dateIndex.pickupsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return dateIndex.returnsBetween(fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return dateIndex.createdBetween(from, to);
+    }
+
+    @Override
+    public void deleteAll() {
+        reservationsByVehicleUUId.clear();
+        reservationMapByReservationUUId.clear();
+        dateIndex.clear();
+    }
+
+    /**
+     * Same inclusive rules as {@link InMemoryReservationRepositoryImpl}: the ranges must not share a single day.
+     * Only the reservation starting last on or before {@code toDate} can overlap, as the stored ranges are disjoint.
+     *
+     * @return true if none of the given reservations overlaps the given dates
+     */
+    private static boolean isFree(NavigableMap<Long, ReservationDetails> reservations,
+                                  LocalDate fromDate, LocalDate toDate) {
+        Map.Entry<Long, ReservationDetails> candidate = reservations.floorEntry(toDate.toEpochDay());
+        return candidate == null || candidate.getValue().getToDate().isBefore(fromDate);
+    }
+}
@@ -0,0 +1,337 @@
+package org.example.respository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * File of fixed-width records accessed through memory-mapped segments, so reopening it is a re-map instead of a
+ * deserialization. Every record is laid out as
+ * {@code [long sequence][int state][int replaced slot][long replaced sequence][payload][int crc32]}, padded to a
+ * multiple of 8 bytes, the checksum covering everything before it. The checksum is written last, a record whose write
+ * was torn by a crash fails the check and is zeroed on open. A record written by {@link #writeReplacing} names the
+ * record it supersedes, which is freed only afterwards; if a crash leaves both live, the superseded one is freed on
+ * open, if it tears the new one, the superseded one is kept. The header holds the version of the payload layout next
+ * to the one of the file layout; a file of any other version is rejected on open.
+ * <p>
+ * Payloads are read in place. {@link #read} validates the record against a concurrent free and reuse of its slot like
+ * a sequence lock, the single field getters do not.
+ */
+class MappedRecordFile implements Closeable {
+
+    private static final int MAGIC = 0x43524452;
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int STATE_OFFSET = 8;
+    private static final int REPLACED_SLOT_OFFSET = 12;
+    private static final int REPLACED_SEQUENCE_OFFSET = 16;
+    private static final int PAYLOAD_OFFSET = 24;
+    private static final int NO_SLOT = -1;
+    private static final int STATE_FREE = 0;
+    private static final int STATE_LIVE = 1;
+    private static final int RECORDS_PER_SEGMENT = 64 * 1024;
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Decodes a payload starting at an absolute offset of the given buffer, leaving its position untouched.
+     */
+    @FunctionalInterface
+    interface PayloadReader<T> {
+        T read(ByteBuffer buffer, int offset);
+    }
+
+    private final FileChannel channel;
+    private final int payloadSize;
+    private final int payloadVersion;
+    private final int recordSize;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile MappedByteBuffer[] segments;
+    private volatile int slotCount;
+
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    private int repairedRecords;
+
+    private MappedRecordFile(FileChannel channel, int payloadSize, int payloadVersion) {
+        this.channel = channel;
+        this.payloadSize = payloadSize;
+        this.payloadVersion = payloadVersion;
+        this.recordSize = (PAYLOAD_OFFSET + payloadSize + Integer.BYTES + Long.BYTES - 1) & -Long.BYTES;
+        this.segments = new MappedByteBuffer[0];
+    }
+
+    /**
+     * Maps the given file, creating it if needed, repairs torn records and completes interrupted replacements.
+     *
+     * @param payloadVersion     version of the payload layout, an existing file must have been written with the same
+     * @param liveRecordConsumer receives the slot and a read-only view of the payload of every intact record
+     */
+    static MappedRecordFile open(Path path, int payloadSize, int payloadVersion,
+                                 BiConsumer<Integer, ByteBuffer> liveRecordConsumer) {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            MappedRecordFile file = new MappedRecordFile(channel, payloadSize, payloadVersion);
+            file.readOrWriteHeader();
+            file.mapExistingSegments();
+            file.recover(liveRecordConsumer);
+            return file;
+        } catch (IOException e) {
+            closeAfterFailure(channel, e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            closeAfterFailure(channel, e);
+            throw e;
+        }
+    }
+
+    private static void closeAfterFailure(FileChannel channel, Exception failure) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    synchronized int allocate() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        int slot = slotCount;
+        if (slot / RECORDS_PER_SEGMENT == segments.length) {
+            addSegment();
+        }
+        slotCount = slot + 1;
+        return slot;
+    }
+
+    void write(int slot, ByteBuffer payload) {
+        write(slot, payload, NO_SLOT, 0);
+    }
+
+    /**
+     * Writes a record which supersedes the live record in the other slot; the caller frees that slot afterwards.
+     */
+    void writeReplacing(int slot, ByteBuffer payload, int replacedSlot) {
+        write(slot, payload, replacedSlot, sequenceOf(replacedSlot));
+    }
+
+    void free(int slot) {
+        INT.setRelease(segmentOf(slot), offsetOf(slot) + STATE_OFFSET, STATE_FREE);
+        synchronized (this) {
+            pushFreeSlot(slot);
+        }
+    }
+
+    /**
+     * @return number of slots ever allocated, every live slot is below it
+     */
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    boolean isLive(int slot) {
+        return (int) INT.getAcquire(segmentOf(slot), offsetOf(slot) + STATE_OFFSET) == STATE_LIVE;
+    }
+
+    /**
+     * Reads an int of the payload in place, without checking the state of the record.
+     */
+    int getInt(int slot, int payloadOffset) {
+        return segmentOf(slot).getInt(offsetOf(slot) + PAYLOAD_OFFSET + payloadOffset);
+    }
+
+    /**
+     * Reads a long of the payload in place, without checking the state of the record.
+     */
+    long getLong(int slot, int payloadOffset) {
+        return segmentOf(slot).getLong(offsetOf(slot) + PAYLOAD_OFFSET + payloadOffset);
+    }
+
+    /**
+     * Decodes the payload in place.
+     *
+     * @return the decoded payload, null if the slot is free or was freed while it was read
+     */
+    <T> T read(int slot, PayloadReader<T> reader) {
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = offsetOf(slot);
+        long sequence = (long) LONG.getAcquire(segment, offset + SEQUENCE_OFFSET);
+        if ((int) INT.getAcquire(segment, offset + STATE_OFFSET) != STATE_LIVE) {
+            return null;
+        }
+        T payload = reader.read(segment, offset + PAYLOAD_OFFSET);
+        VarHandle.acquireFence();
+        if (segment.getInt(offset + STATE_OFFSET) != STATE_LIVE
+                || segment.getLong(offset + SEQUENCE_OFFSET) != sequence) {
+            return null;
+        }
+        return payload;
+    }
+
+    synchronized void clear() {
+        for (MappedByteBuffer segment : segments) {
+            for (int offset = 0; offset < segment.capacity(); offset += recordSize) {
+                INT.setRelease(segment, offset + STATE_OFFSET, STATE_FREE);
+            }
+        }
+        freeSlotCount = 0;
+        slotCount = 0;
+    }
+
+    /**
+     * @return number of torn records which were zeroed while opening the file
+     */
+    int getRepairedRecords() {
+        return repairedRecords;
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private void write(int slot, ByteBuffer payload, int replacedSlot, long replacedSequence) {
+        MappedByteBuffer segment = segmentOf(slot);
+        int offset = offsetOf(slot);
+        segment.putLong(offset + SEQUENCE_OFFSET, sequence.incrementAndGet());
+        // a reader of the previous record of the slot must see the new sequence before any byte of the new payload
+        VarHandle.releaseFence();
+        segment.putInt(offset + recordSize - Integer.BYTES, 0);
+        segment.putInt(offset + REPLACED_SLOT_OFFSET, replacedSlot);
+        segment.putLong(offset + REPLACED_SEQUENCE_OFFSET, replacedSequence);
+        segment.put(offset + PAYLOAD_OFFSET, payload, 0, payloadSize);
+        INT.setRelease(segment, offset + STATE_OFFSET, STATE_LIVE);
+        segment.putInt(offset + recordSize - Integer.BYTES, checksum(segment, offset));
+    }
+
+    private void readOrWriteHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) {
+            header.putInt(MAGIC).putInt(VERSION).putInt(recordSize).putInt(payloadVersion).flip();
+            channel.write(header, 0);
+            return;
+        }
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != recordSize
+                || header.getInt() != payloadVersion) {
+            throw new IllegalStateException("Unsupported record file format");
+        }
+    }
+
+    private void mapExistingSegments() throws IOException {
+        long segmentBytes = (long) RECORDS_PER_SEGMENT * recordSize;
+        long segmentCount = (channel.size() - HEADER_SIZE + segmentBytes - 1) / segmentBytes;
+        for (int i = 0; i < segmentCount; i++) {
+            addSegment();
+        }
+    }
+
+    private void recover(BiConsumer<Integer, ByteBuffer> liveRecordConsumer) {
+        int mappedSlots = segments.length * RECORDS_PER_SEGMENT;
+        long lastSequence = 0;
+        for (int slot = 0; slot < mappedSlots; slot++) {
+            MappedByteBuffer segment = segmentOf(slot);
+            int offset = offsetOf(slot);
+            if (segment.getInt(offset + STATE_OFFSET) == STATE_FREE) {
+                continue;
+            }
+            if (segment.getInt(offset + recordSize - Integer.BYTES) != checksum(segment, offset)) {
+                segment.put(offset, new byte[recordSize]);
+                repairedRecords++;
+                continue;
+            }
+            lastSequence = Math.max(lastSequence, segment.getLong(offset + SEQUENCE_OFFSET));
+        }
+        sequence.set(lastSequence);
+        // a crash between writing a replacement and freeing the record it supersedes leaves both live
+        for (int slot = 0; slot < mappedSlots; slot++) {
+            MappedByteBuffer segment = segmentOf(slot);
+            int offset = offsetOf(slot);
+            int replacedSlot = segment.getInt(offset + REPLACED_SLOT_OFFSET);
+            if (segment.getInt(offset + STATE_OFFSET) == STATE_LIVE && replacedSlot != NO_SLOT && isLive(replacedSlot)
+                    && sequenceOf(replacedSlot) == segment.getLong(offset + REPLACED_SEQUENCE_OFFSET)) {
+                segmentOf(replacedSlot).putInt(offsetOf(replacedSlot) + STATE_OFFSET, STATE_FREE);
+            }
+        }
+        int lastLiveSlot = -1;
+        for (int slot = 0; slot < mappedSlots; slot++) {
+            if (isLive(slot)) {
+                liveRecordConsumer.accept(slot,
+                        segmentOf(slot).slice(offsetOf(slot) + PAYLOAD_OFFSET, payloadSize).asReadOnlyBuffer());
+                lastLiveSlot = slot;
+            }
+        }
+        slotCount = lastLiveSlot + 1;
+        for (int slot = lastLiveSlot - 1; slot >= 0; slot--) {
+            if (!isLive(slot)) {
+                pushFreeSlot(slot);
+            }
+        }
+    }
+
+    private void addSegment() {
+        try {
+            long segmentBytes = (long) RECORDS_PER_SEGMENT * recordSize;
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + segments.length * segmentBytes, segmentBytes);
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+            grown[segments.length] = segment;
+            segments = grown;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer segmentOf(int slot) {
+        return segments[slot / RECORDS_PER_SEGMENT];
+    }
+
+    private int offsetOf(int slot) {
+        return (slot % RECORDS_PER_SEGMENT) * recordSize;
+    }
+
+    private long sequenceOf(int slot) {
+        return segmentOf(slot).getLong(offsetOf(slot) + SEQUENCE_OFFSET);
+    }
+
+    private void pushFreeSlot(int slot) {
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    private int checksum(MappedByteBuffer segment, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(segment.slice(offset, recordSize - Integer.BYTES));
+        return (int) crc.getValue();
+    }
+}
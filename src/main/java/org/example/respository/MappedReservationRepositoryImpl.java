@@ -0,0 +1,245 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link ReservationRepository} which keeps every reservation as a fixed-width record in a memory-mapped file and
+ * answers queries from the mapped records. The heap only holds slot numbers: the slot of every reservation id and the
+ * slots of every vehicle, rebuilt on open from the ids in the records without decoding a reservation. An availability
+ * check compares the dates of the slots of the vehicle in place; date range queries scan the dates of all slots and
+ * decode only the matching records. Writes of a vehicle hold its lock stripe; a replacement is written to a new slot
+ * before the slot of the reservation it replaces is freed, so a crash keeps one of them.
+ */
+public class MappedReservationRepositoryImpl implements ReservationRepository, Closeable {
+
+    private static final int PAYLOAD_SIZE = ReservationRecordCodec.RECORD_SIZE;
+    private static final int NO_SLOT = -1;
+
+    private final Map<UUID, Integer> slotByReservationId;
+    /**
+     * Copied on write under the lock stripe of the vehicle, so a query reads them without locking.
+     */
+    private final Map<UUID, int[]> slotsByVehicleId;
+    private final VehicleLockStripes vehicleLocks;
+    private final MappedRecordFile recordFile;
+
+    private MappedReservationRepositoryImpl(Path path) {
+        this.slotByReservationId = new ConcurrentHashMap<>();
+        this.slotsByVehicleId = new ConcurrentHashMap<>();
+        this.vehicleLocks = new VehicleLockStripes();
+        this.recordFile = MappedRecordFile.open(path, PAYLOAD_SIZE, ReservationRecordCodec.VERSION, (slot, payload) -> {
+            slotByReservationId.put(new UUID(payload.getLong(0), payload.getLong(Long.BYTES)), slot);
+            UUID vehicleId = new UUID(payload.getLong(ReservationRecordCodec.VEHICLE_ID_OFFSET),
+                    payload.getLong(ReservationRecordCodec.VEHICLE_ID_OFFSET + Long.BYTES));
+            slotsByVehicleId.merge(vehicleId, new int[]{slot}, MappedReservationRepositoryImpl::concat);
+        });
+    }
+
+    public static MappedReservationRepositoryImpl open(Path path) {
+        return new MappedReservationRepositoryImpl(path);
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        if (!tryReserve(reservationDetails)) {
+            throw new ReservationNotPossibleException(reservationDetails.getVehicle().getId(),
+                    reservationDetails.getFromDate(), reservationDetails.getToDate());
+        }
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        synchronized (vehicleLocks.lockFor(vehicleId)) {
+            int[] slots = slotsByVehicleId.getOrDefault(vehicleId, new int[0]);
+            if (!isFree(slots, NO_SLOT, reservationDetails.getFromDate(), reservationDetails.getToDate())) {
+                return false;
+            }
+            int slot = recordFile.allocate();
+            recordFile.write(slot, writeReservation(reservationDetails));
+            slotByReservationId.put(reservationDetails.getId(), slot);
+            slotsByVehicleId.put(vehicleId, concat(slots, new int[]{slot}));
+            return true;
+        }
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        ReservationDetails reservationDetails = findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        synchronized (vehicleLocks.lockFor(vehicleId)) {
+            Integer slot = slotByReservationId.remove(reservationDetailsId);
+            if (slot == null) {
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            ReservationDetails removed = recordFile.read(slot, ReservationRecordCodec::read);
+            slotsByVehicleId.computeIfPresent(vehicleId, (k, slots) -> without(slots, slot));
+            recordFile.free(slot);
+            return removed;
+        }
+    }
+
+    /**
+     * The replacement is written to a slot of its own which names the slot of the reservation; that one is freed
+     * afterwards, so a torn write of the replacement keeps the reservation.
+     */
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        ReservationDetails reservationDetails = findById(reservationDetailsId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationDetailsId.toString()));
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        if (!vehicleId.equals(replacement.getVehicle().getId())) {
+            throw new IllegalArgumentException("Replacement must be for the same vehicle");
+        }
+        synchronized (vehicleLocks.lockFor(vehicleId)) {
+            Integer slot = slotByReservationId.get(reservationDetailsId);
+            if (slot == null) {
+                throw new InvalidReservationIdException(reservationDetailsId.toString());
+            }
+            int[] slots = slotsByVehicleId.get(vehicleId);
+            if (!isFree(slots, slot, replacement.getFromDate(), replacement.getToDate())) {
+                return false;
+            }
+            int replacementSlot = recordFile.allocate();
+            recordFile.writeReplacing(replacementSlot, writeReservation(replacement), slot);
+            slotByReservationId.put(replacement.getId(), replacementSlot);
+            if (!replacement.getId().equals(reservationDetailsId)) {
+                slotByReservationId.remove(reservationDetailsId);
+            }
+            slotsByVehicleId.put(vehicleId, concat(without(slots, slot), new int[]{replacementSlot}));
+            recordFile.free(slot);
+            return true;
+        }
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        while (true) {
+            Integer slot = slotByReservationId.get(reservationDetailsId);
+            if (slot == null) {
+                return Optional.empty();
+            }
+            ReservationDetails reservationDetails = recordFile.read(slot, ReservationRecordCodec::read);
+            if (reservationDetails != null && reservationDetails.getId().equals(reservationDetailsId)) {
+                return Optional.of(reservationDetails);
+            }
+            // the slot was freed after the lookup, the map already holds the reservation's new state
+        }
+    }
+
+    /**
+     * Decodes every live record of the file.
+     */
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return scan(slot -> true);
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        return isFree(slotsByVehicleId.getOrDefault(vehicleId, new int[0]), NO_SLOT, fromDate, toDate);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        int day = (int) date.toEpochDay();
+        return scan(slot -> fromEpochDay(slot) <= day && toEpochDay(slot) >= day);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        int fromDay = (int) fromDate.toEpochDay();
+        int toDay = (int) toDate.toEpochDay();
+        return scan(slot -> fromEpochDay(slot) >= fromDay && fromEpochDay(slot) <= toDay);
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        int fromDay = (int) fromDate.toEpochDay();
+        int toDay = (int) toDate.toEpochDay();
+        return scan(slot -> toEpochDay(slot) >= fromDay && toEpochDay(slot) <= toDay);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        recordFile.clear();
+        slotByReservationId.clear();
+        slotsByVehicleId.clear();
+    }
+
+    /**
+     * @return number of torn records dropped while opening the file
+     */
+    public int getRepairedRecords() {
+        return recordFile.getRepairedRecords();
+    }
+
+    @Override
+    public void close() throws IOException {
+        recordFile.close();
+    }
+
+    /**
+     * Lazily tests the dates of every live slot in place and decodes the matching records; like
+     * {@link #findAll()} of the other repositories, writes running concurrently may or may not be reflected.
+     */
+    private Stream<ReservationDetails> scan(IntPredicate datesMatch) {
+        return IntStream.range(0, recordFile.getSlotCount())
+                .filter(slot -> recordFile.isLive(slot) && datesMatch.test(slot))
+                .mapToObj(slot -> recordFile.read(slot, ReservationRecordCodec::read))
+                .filter(Objects::nonNull);
+    }
+
+    private boolean isFree(int[] slots, int ignoredSlot, LocalDate fromDate, LocalDate toDate) {
+        int fromDay = (int) fromDate.toEpochDay();
+        int toDay = (int) toDate.toEpochDay();
+        for (int slot : slots) {
+            if (slot != ignoredSlot && fromEpochDay(slot) <= toDay && toEpochDay(slot) >= fromDay) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int fromEpochDay(int slot) {
+        return recordFile.getInt(slot, ReservationRecordCodec.FROM_EPOCH_DAY_OFFSET);
+    }
+
+    private int toEpochDay(int slot) {
+        return recordFile.getInt(slot, ReservationRecordCodec.TO_EPOCH_DAY_OFFSET);
+    }
+
+    private static int[] concat(int[] slots, int[] added) {
+        int[] result = Arrays.copyOf(slots, slots.length + added.length);
+        System.arraycopy(added, 0, result, slots.length, added.length);
+        return result;
+    }
+
+    private static int[] without(int[] slots, int removed) {
+        return Arrays.stream(slots).filter(slot -> slot != removed).toArray();
+    }
+
+    private static ByteBuffer writeReservation(ReservationDetails reservationDetails) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_SIZE);
+        ReservationRecordCodec.write(reservationDetails, payload);
+        return payload;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.respository;
+
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * {@link VehicleRepository} which persists the fleet as fixed-width records in a memory-mapped file and serves
+ * queries from an {@link InMemoryVehicleRepository} rebuilt from the mapped records on open.
+ */
+public class MappedVehicleRepository implements VehicleRepository, Closeable {
+
+    private static final int PAYLOAD_SIZE = 2 * Long.BYTES + Integer.BYTES;
+    private static final int PAYLOAD_VERSION = 1;
+
+    private final InMemoryVehicleRepository vehicles;
+    private final MappedRecordFile recordFile;
+
+    private MappedVehicleRepository(Path path) {
+        this.vehicles = new InMemoryVehicleRepository();
+        this.recordFile = MappedRecordFile.open(path, PAYLOAD_SIZE, PAYLOAD_VERSION,
+                (slot, payload) -> vehicles.save(readVehicle(payload)));
+    }
+
+    public static MappedVehicleRepository open(Path path) {
+        return new MappedVehicleRepository(path);
+    }
+
+    @Override
+    public synchronized void save(Vehicle vehicle) {
+        if (vehicles.containsVehicle(vehicle.getId())) {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_SIZE)
+                .putLong(vehicle.getId().getMostSignificantBits())
+                .putLong(vehicle.getId().getLeastSignificantBits())
+                .putInt(vehicle.getType().ordinal());
+        recordFile.write(recordFile.allocate(), payload);
+        vehicles.save(vehicle);
+    }
+
+    @Override
+    public void saveAll(Collection<Vehicle> vehicles) {
+        vehicles.forEach(this::save);
+    }
+
+    @Override
+    public Set<Vehicle> getVehiclesByType(VehicleType vehicleType) {
+        return vehicles.getVehiclesByType(vehicleType);
+    }
+
+    @Override
+    public Vehicle getVehicleByVehicleId(UUID id) {
+        return vehicles.getVehicleByVehicleId(id);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        recordFile.clear();
+        vehicles.deleteAll();
+    }
+
+    /**
+     * @return number of torn records dropped while opening the file
+     */
+    public int getRepairedRecords() {
+        return recordFile.getRepairedRecords();
+    }
+
+    @Override
+    public void close() throws IOException {
+        recordFile.close();
+    }
+
+    private static Vehicle readVehicle(ByteBuffer payload) {
+        UUID id = new UUID(payload.getLong(0), payload.getLong(Long.BYTES));
+        return new Vehicle(VehicleType.values()[payload.getInt(2 * Long.BYTES)], id);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.respository;
+
+import lombok.Value;
+import org.example.domain.ReservationDetails;
+import org.example.id.TimeOrderedIdGenerator;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index of reservations ordered by their 'from' date, by their 'to' date and by their id, so date range
+ * queries walk a sub-map instead of every reservation. Time-ordered ids make the id order the order of creation and
+ * append new reservations at the tail of their skip list. Queries are lazy views over the skip lists and, like
+ * {@link ReservationRepository#findAll()}, weakly consistent with concurrent writes.
+ */
+class ReservationDateIndex {
+
+    private final ConcurrentSkipListMap<DayKey, ReservationDetails> byFromDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<DayKey, ReservationDetails> byToDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<UUID, ReservationDetails> byId = new ConcurrentSkipListMap<>();
+    /**
+     * Number of indexed reservations per span in days; the longest bounds how far before a day a reservation active
+     * on it can start, and shrinks again once the long reservations are gone.
+     */
+    private final ConcurrentSkipListMap<Long, Long> reservationsBySpanDays = new ConcurrentSkipListMap<>();
+
+    void add(ReservationDetails reservationDetails) {
+        long fromDay = reservationDetails.getFromDate().toEpochDay();
+        long toDay = reservationDetails.getToDate().toEpochDay();
+        // counted before it can be found, so a query never scans too short a span for a reservation it sees
+        reservationsBySpanDays.merge(toDay - fromDay, 1L, Long::sum);
+        byFromDay.put(DayKey.of(fromDay, reservationDetails.getId()), reservationDetails);
+        byToDay.put(DayKey.of(toDay, reservationDetails.getId()), reservationDetails);
+        byId.put(reservationDetails.getId(), reservationDetails);
+    }
+
+    void remove(ReservationDetails reservationDetails) {
+        byFromDay.remove(DayKey.of(reservationDetails.getFromDate().toEpochDay(), reservationDetails.getId()));
+        byToDay.remove(DayKey.of(reservationDetails.getToDate().toEpochDay(), reservationDetails.getId()));
+        if (byId.remove(reservationDetails.getId()) != null) {
+            reservationsBySpanDays.computeIfPresent(getSpanDays(reservationDetails),
+                    (span, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    void clear() {
+        byFromDay.clear();
+        byToDay.clear();
+        byId.clear();
+        reservationsBySpanDays.clear();
+    }
+
+    /**
+     * @return longest span in days of the indexed reservations, 0 if there are none
+     */
+    long getLongestSpanDays() {
+        Map.Entry<Long, Long> longest = reservationsBySpanDays.lastEntry();
+        return longest == null ? 0 : longest.getKey();
+    }
+
+    /**
+     * @return reservations whose range includes the given day, ordered by their 'from' date
+     */
+    Stream<ReservationDetails> activeOn(LocalDate date) {
+        long day = date.toEpochDay();
+        return between(byFromDay, day - getLongestSpanDays(), day)
+                .filter(reservationDetails -> !reservationDetails.getToDate().isBefore(date));
+    }
+
+    /**
+     * @return reservations starting between the given dates inclusive, ordered by their 'from' date
+     */
+    Stream<ReservationDetails> pickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return between(byFromDay, fromDate.toEpochDay(), toDate.toEpochDay());
+    }
+
+    /**
+     * @return reservations ending between the given dates inclusive, ordered by their 'to' date
+     */
+    Stream<ReservationDetails> returnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return between(byToDay, fromDate.toEpochDay(), toDate.toEpochDay());
+    }
+
+    /**
+     * @return reservations with time-ordered ids created between the given instants inclusive, ordered by their id
+     */
+    Stream<ReservationDetails> createdBetween(Instant from, Instant to) {
+        UUID lowerBound = TimeOrderedIdGenerator.lowerBound(from);
+        UUID upperBound = TimeOrderedIdGenerator.upperBound(to);
+        if (lowerBound.compareTo(upperBound) > 0) {
+            return Stream.empty();
+        }
+        return byId.subMap(lowerBound, true, upperBound, true).values().stream()
+                .filter(reservationDetails -> TimeOrderedIdGenerator.isTimeOrdered(reservationDetails.getId()));
+    }
+
+    private static long getSpanDays(ReservationDetails reservationDetails) {
+        return reservationDetails.getToDate().toEpochDay() - reservationDetails.getFromDate().toEpochDay();
+    }
+
+    private static Stream<ReservationDetails> between(ConcurrentSkipListMap<DayKey, ReservationDetails> index,
+                                                      long fromDay, long toDay) {
+        if (fromDay > toDay) {
+            return Stream.empty();
+        }
+        return index.subMap(DayKey.first(fromDay), true, DayKey.last(toDay), true).values().stream();
+    }
+
+    /**
+     * Day first, reservation id as tie breaker; the first and last keys of a day sort around all of its entries.
+     */
+    @Value
+    private static class DayKey implements Comparable<DayKey> {
+        long day;
+        long mostSigBits;
+        long leastSigBits;
+
+        static DayKey of(long day, UUID id) {
+            return new DayKey(day, id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        static DayKey first(long day) {
+            return new DayKey(day, Long.MIN_VALUE, Long.MIN_VALUE);
+        }
+
+        static DayKey last(long day) {
+            return new DayKey(day, Long.MAX_VALUE, Long.MAX_VALUE);
+        }
+
+        @Override
+        public int compareTo(DayKey other) {
+            int byDay = Long.compare(day, other.day);
+            if (byDay != 0) {
+                return byDay;
+            }
+            int byMostSigBits = Long.compare(mostSigBits, other.mostSigBits);
+            return byMostSigBits != 0 ? byMostSigBits : Long.compare(leastSigBits, other.leastSigBits);
+        }
+    }
+}
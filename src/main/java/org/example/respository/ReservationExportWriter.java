@@ -0,0 +1,197 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Encodes reservations straight into a direct buffer which is drained to the channel whenever it fills up, so an
+ * export allocates no per-row objects; a file channel writes a direct buffer without copying it. The buffers are
+ * taken from a small shared pool and handed back by {@link #finish()}, so repeated exports do not each allocate
+ * direct memory which is only freed once the garbage collector gets to it. Concurrent exports beyond the pool size
+ * allocate a buffer of their own.
+ */
+class ReservationExportWriter {
+
+    static final int MAGIC = 0x52455850;
+    static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int POOLED_BUFFERS = 4;
+    private static final BlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+    /** longest CSV line: two UUIDs, the longest type name, two dates, a price and the separators */
+    private static final int MAX_CSV_LINE = 2 * 36 + 16 + 2 * 14 + 24 + 6;
+    private static final byte[] CSV_HEADER =
+            "id,vehicleId,vehicleType,fromDate,toDate,price\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] TYPE_NAMES = new byte[VehicleType.values().length][];
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (VehicleType type : VehicleType.values()) {
+            TYPE_NAMES[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final WritableByteChannel channel;
+    private final ExportFormat format;
+    private ByteBuffer buffer;
+    private long rows;
+
+    ReservationExportWriter(WritableByteChannel channel, ExportFormat format) {
+        this.channel = channel;
+        this.format = format;
+        ByteBuffer pooled = BUFFER_POOL.poll();
+        this.buffer = pooled == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : pooled.clear();
+        if (format == ExportFormat.BINARY) {
+            buffer.putInt(MAGIC).putInt(VERSION);
+        } else {
+            buffer.put(CSV_HEADER);
+        }
+    }
+
+    void write(ReservationDetails reservationDetails) {
+        UUID id = reservationDetails.getId();
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        write(id.getMostSignificantBits(), id.getLeastSignificantBits(), vehicleId.getMostSignificantBits(),
+                vehicleId.getLeastSignificantBits(), reservationDetails.getVehicle().getType().ordinal(),
+                (int) reservationDetails.getFromDate().toEpochDay(), (int) reservationDetails.getToDate().toEpochDay(),
+                reservationDetails.getPriceCents());
+    }
+
+    void write(long idMostSigBits, long idLeastSigBits, long vehicleIdMostSigBits, long vehicleIdLeastSigBits,
+               int typeOrdinal, int fromEpochDay, int toEpochDay, long priceCents) {
+        if (buffer.remaining() < Math.max(ReservationRecordCodec.RECORD_SIZE, MAX_CSV_LINE)) {
+            drain();
+        }
+        if (format == ExportFormat.BINARY) {
+            ReservationRecordCodec.write(idMostSigBits, idLeastSigBits, vehicleIdMostSigBits, vehicleIdLeastSigBits,
+                    typeOrdinal, fromEpochDay, toEpochDay, priceCents, buffer);
+        } else {
+            putUuid(idMostSigBits, idLeastSigBits);
+            buffer.put((byte) ',');
+            putUuid(vehicleIdMostSigBits, vehicleIdLeastSigBits);
+            buffer.put((byte) ',').put(TYPE_NAMES[typeOrdinal]).put((byte) ',');
+            putDate(fromEpochDay);
+            buffer.put((byte) ',');
+            putDate(toEpochDay);
+            buffer.put((byte) ',');
+            putCents(priceCents);
+            buffer.put((byte) '\n');
+        }
+        rows++;
+    }
+
+    /**
+     * Writes out what is still buffered and returns the buffer to the pool; the writer must not be used afterwards.
+     * A writer which fails before it finishes leaves its buffer to the garbage collector.
+     *
+     * @return number of exported reservations
+     */
+    long finish() {
+        drain();
+        BUFFER_POOL.offer(buffer);
+        buffer = null;
+        return rows;
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Canonical 8-4-4-4-12 form, the same as {@link UUID#toString()}.
+     */
+    private void putUuid(long mostSigBits, long leastSigBits) {
+        putHex(mostSigBits >>> 32, 8);
+        buffer.put((byte) '-');
+        putHex(mostSigBits >>> 16, 4);
+        buffer.put((byte) '-');
+        putHex(mostSigBits, 4);
+        buffer.put((byte) '-');
+        putHex(leastSigBits >>> 48, 4);
+        buffer.put((byte) '-');
+        putHex(leastSigBits, 12);
+    }
+
+    private void putHex(long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            buffer.put(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * ISO-8601 date of an epoch-day, computed with the civil-from-days algorithm to avoid a {@link java.time.LocalDate}
+     * per field. Years are written like {@link java.time.LocalDate#toString()} does: at least four digits, with a
+     * sign if negative or beyond 9999; an int epoch-day is at most a seven digit year.
+     */
+    private void putDate(int epochDay) {
+        long days = epochDay + 719_468L;
+        long era = Math.floorDiv(days, 146_097L);
+        long dayOfEra = days - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        putYear(year);
+        buffer.put((byte) '-');
+        putDigits(month, 2);
+        buffer.put((byte) '-');
+        putDigits(day, 2);
+    }
+
+    private void putYear(long year) {
+        if (year < 0) {
+            buffer.put((byte) '-');
+        } else if (year > 9999) {
+            buffer.put((byte) '+');
+        }
+        long absoluteYear = Math.abs(year);
+        int digits = 4;
+        for (long rest = absoluteYear / 10_000; rest > 0; rest /= 10) {
+            digits++;
+        }
+        putDigits(absoluteYear, digits);
+    }
+
+    private void putCents(long cents) {
+        if (cents < 0) {
+            buffer.put((byte) '-');
+            cents = -cents;
+        }
+        long units = cents / 100;
+        int digits = 1;
+        for (long rest = units / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        putDigits(units, digits);
+        buffer.put((byte) '.');
+        putDigits(cents % 100, 2);
+    }
+
+    private void putDigits(long value, int digits) {
+        int end = buffer.position() + digits;
+        for (int index = end - 1; index >= buffer.position(); index--) {
+            buffer.put(index, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Fixed-width binary layout of a reservation shared by the file backed repositories:
+ * reservation id, vehicle id, vehicle type ordinal, from and to epoch-day and price in cents.
+ */
+final class ReservationRecordCodec {
+
+    static final int RECORD_SIZE = 5 * Long.BYTES + 3 * Integer.BYTES;
+    /**
+     * Stored in the header of every file holding these records and bumped whenever the layout changes, so a file of
+     * an older layout is rejected instead of misread. Version 1 stored the price as a double of whole units.
+     */
+    static final int VERSION = 2;
+    static final int VEHICLE_ID_OFFSET = 16;
+    static final int FROM_EPOCH_DAY_OFFSET = 36;
+    static final int TO_EPOCH_DAY_OFFSET = 40;
+
+    private ReservationRecordCodec() {
+    }
+
+    /**
+     * Writes the reservation at the current position of the buffer.
+     */
+    static void write(ReservationDetails reservationDetails, ByteBuffer buffer) {
+        Vehicle vehicle = reservationDetails.getVehicle();
+        write(reservationDetails.getId().getMostSignificantBits(), reservationDetails.getId().getLeastSignificantBits(),
+                vehicle.getId().getMostSignificantBits(), vehicle.getId().getLeastSignificantBits(),
+                vehicle.getType().ordinal(), (int) reservationDetails.getFromDate().toEpochDay(),
+                (int) reservationDetails.getToDate().toEpochDay(), reservationDetails.getPriceCents(), buffer);
+    }
+
+    /**
+     * Writes a reservation given as its fields at the current position of the buffer.
+     */
+    static void write(long idMostSigBits, long idLeastSigBits, long vehicleIdMostSigBits, long vehicleIdLeastSigBits,
+                      int typeOrdinal, int fromEpochDay, int toEpochDay, long priceCents, ByteBuffer buffer) {
+        buffer.putLong(idMostSigBits)
+                .putLong(idLeastSigBits)
+                .putLong(vehicleIdMostSigBits)
+                .putLong(vehicleIdLeastSigBits)
+                .putInt(typeOrdinal)
+                .putInt(fromEpochDay)
+                .putInt(toEpochDay)
+                .putLong(priceCents);
+    }
+
+    /**
+     * Reads a reservation starting at the given absolute offset, leaving the position of the buffer untouched.
+     */
+    static ReservationDetails read(ByteBuffer buffer, int offset) {
+        UUID id = new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+        Vehicle vehicle = new Vehicle(VehicleType.values()[buffer.getInt(offset + 32)],
+                new UUID(buffer.getLong(offset + VEHICLE_ID_OFFSET), buffer.getLong(offset + VEHICLE_ID_OFFSET + 8)));
+        return ReservationDetails.restore(id, vehicle, buffer.getLong(offset + 44),
+                LocalDate.ofEpochDay(buffer.getInt(offset + FROM_EPOCH_DAY_OFFSET)),
+                LocalDate.ofEpochDay(buffer.getInt(offset + TO_EPOCH_DAY_OFFSET)));
+    }
+}
@@ -1,16 +1,120 @@
 package org.example.respository;
 
 import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.id.TimeOrderedIdGenerator;
 
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ReservationRepository {
     void save(ReservationDetails reservationDetails);
 
+    /**
+     * Checks the vehicle of the given reservation for availability and saves the reservation as one atomic step.
+     *
+     * @return true if the reservation was saved, false if its dates are already taken
+     */
+    boolean tryReserve(ReservationDetails reservationDetails);
+
     ReservationDetails remove(UUID reservationDetailsId);
 
+    /**
+     * Swaps a reservation for a replacement of the same vehicle as one atomic step. The replacement only has to be
+     * free of the other reservations of the vehicle, it may overlap the reservation it replaces.
+     *
+     * @return true if the reservation was replaced, false if the new dates are already taken; the reservation is
+     * kept unchanged then
+     * @throws org.example.errors.InvalidReservationIdException if there is no reservation with the given id
+     * @throws IllegalArgumentException if the replacement is for another vehicle
+     */
+    boolean replace(UUID reservationDetailsId, ReservationDetails replacement);
+
+    Optional<ReservationDetails> findById(UUID reservationDetailsId);
+
+    /**
+     * @return all reservations; writes running concurrently may or may not be reflected
+     */
+    Stream<ReservationDetails> findAll();
+
     boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate);
 
+    /**
+     * @param vehicles vehicles of the given type to choose from
+     * @return lazily evaluated ids of the given vehicles which are not reserved on the given dates
+     */
+    default Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                               LocalDate fromDate, LocalDate toDate) {
+        return vehicles.stream()
+                .map(Vehicle::getId)
+                .filter(vehicleId -> isAvailableOnDates(vehicleId, fromDate, toDate));
+    }
+
+    /**
+     * @return lazily evaluated reservations whose range includes the given day
+     */
+    default Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return findAll().filter(reservationDetails -> !reservationDetails.getFromDate().isAfter(date)
+                && !reservationDetails.getToDate().isBefore(date));
+    }
+
+    /**
+     * @return lazily evaluated reservations whose range shares at least one day with the given dates inclusive
+     */
+    default Stream<ReservationDetails> findOverlapping(LocalDate fromDate, LocalDate toDate) {
+        return Stream.concat(findActiveOn(fromDate), findPickupsBetween(fromDate.plusDays(1), toDate));
+    }
+
+    /**
+     * @return lazily evaluated reservations starting between the given dates inclusive
+     */
+    default Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return findAll().filter(reservationDetails -> !reservationDetails.getFromDate().isBefore(fromDate)
+                && !reservationDetails.getFromDate().isAfter(toDate));
+    }
+
+    /**
+     * @return lazily evaluated reservations ending between the given dates inclusive
+     */
+    default Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return findAll().filter(reservationDetails -> !reservationDetails.getToDate().isBefore(fromDate)
+                && !reservationDetails.getToDate().isAfter(toDate));
+    }
+
+    /**
+     * Range scan over the creation time which {@link TimeOrderedIdGenerator} encodes in the ids; reservations with ids
+     * of another generator are never returned.
+     *
+     * @return lazily evaluated reservations created between the given instants inclusive, to the millisecond
+     */
+    default Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        UUID lowerBound = TimeOrderedIdGenerator.lowerBound(from);
+        UUID upperBound = TimeOrderedIdGenerator.upperBound(to);
+        return findAll().filter(reservationDetails -> TimeOrderedIdGenerator.isTimeOrdered(reservationDetails.getId())
+                && reservationDetails.getId().compareTo(lowerBound) >= 0
+                && reservationDetails.getId().compareTo(upperBound) <= 0);
+    }
+
+    /**
+     * Streams every reservation to the channel, a {@link java.nio.channels.FileChannel} writes the export buffer
+     * without copying it. Only {@link CompactReservationRepositoryImpl} exports a consistent point-in-time view while
+     * writes continue; the default export, used by every other repository, is weakly consistent like
+     * {@link #findAll()}: a reservation written or removed during the export may or may not be in it, and a replaced
+     * one may appear in both or neither of its versions. Take a consistent export from a repository without writers.
+     *
+     * @return number of exported reservations
+     */
+    default long exportTo(WritableByteChannel channel, ExportFormat format) {
+        ReservationExportWriter writer = new ReservationExportWriter(channel, format);
+        findAll().forEach(writer::write);
+        return writer.finish();
+    }
+
     void deleteAll();
 }
@@ -0,0 +1,399 @@
+package org.example.respository;
+
+import lombok.Value;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Partitions the vehicles over a fixed number of shards by hashing their id. Every shard owns a repository which is
+ * only ever touched by the shard's own thread; callers hand commands over a lock-free queue and wait for the result,
+ * so writers of different shards never contend and a hot vehicle only delays its own shard.
+ * <p>
+ * Reservation ids are routed through a map filled by the shard threads. Queries over several vehicles are scattered
+ * to the shards involved and their answers are consumed in the order the shards finish. A command which throws,
+ * even an {@link Error}, fails only its own caller; the shard thread carries on with the next one.
+ */
+public class ShardedReservationRepository implements ReservationRepository, Closeable {
+
+    static final int AVAILABILITY_CHUNK_SIZE = 64;
+
+    private final Shard[] shards;
+    private final Map<UUID, Shard> shardByReservationId = new ConcurrentHashMap<>();
+
+    public ShardedReservationRepository(int shardCount) {
+        this(shardCount, IntervalTreeReservationRepositoryImpl::new);
+    }
+
+    /**
+     * @param shardRepositorySupplier creates the repository of every shard, it does not need to be thread-safe
+     */
+    public ShardedReservationRepository(int shardCount, Supplier<ReservationRepository> shardRepositorySupplier) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, shardRepositorySupplier.get());
+        }
+    }
+
+    @Override
+    public void save(ReservationDetails reservationDetails) {
+        Shard shard = shardOf(reservationDetails.getVehicle().getId());
+        shard.call(repository -> {
+            repository.save(reservationDetails);
+            shardByReservationId.put(reservationDetails.getId(), shard);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean tryReserve(ReservationDetails reservationDetails) {
+        Shard shard = shardOf(reservationDetails.getVehicle().getId());
+        return shard.call(repository -> {
+            if (!repository.tryReserve(reservationDetails)) {
+                return false;
+            }
+            shardByReservationId.put(reservationDetails.getId(), shard);
+            return true;
+        });
+    }
+
+    @Override
+    public ReservationDetails remove(UUID reservationDetailsId) {
+        Shard shard = shardByReservationId.get(reservationDetailsId);
+        if (shard == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        return shard.call(repository -> {
+            ReservationDetails removed = repository.remove(reservationDetailsId);
+            shardByReservationId.remove(reservationDetailsId, shard);
+            return removed;
+        });
+    }
+
+    @Override
+    public boolean replace(UUID reservationDetailsId, ReservationDetails replacement) {
+        Shard shard = shardByReservationId.get(reservationDetailsId);
+        if (shard == null) {
+            throw new InvalidReservationIdException(reservationDetailsId.toString());
+        }
+        return shard.call(repository -> {
+            if (!repository.replace(reservationDetailsId, replacement)) {
+                return false;
+            }
+            shardByReservationId.remove(reservationDetailsId, shard);
+            shardByReservationId.put(replacement.getId(), shard);
+            return true;
+        });
+    }
+
+    @Override
+    public Optional<ReservationDetails> findById(UUID reservationDetailsId) {
+        Shard shard = shardByReservationId.get(reservationDetailsId);
+        return shard == null ? Optional.empty() : shard.call(repository -> repository.findById(reservationDetailsId));
+    }
+
+    @Override
+    public Stream<ReservationDetails> findAll() {
+        return gather(repository -> repository.findAll().toList());
+    }
+
+    @Override
+    public Stream<ReservationDetails> findActiveOn(LocalDate date) {
+        return gather(repository -> repository.findActiveOn(date).toList());
+    }
+
+    @Override
+    public Stream<ReservationDetails> findPickupsBetween(LocalDate fromDate, LocalDate toDate) {
+        return gather(repository -> repository.findPickupsBetween(fromDate, toDate).toList());
+    }
+
+    @Override
+    public Stream<ReservationDetails> findReturnsBetween(LocalDate fromDate, LocalDate toDate) {
+        return gather(repository -> repository.findReturnsBetween(fromDate, toDate).toList());
+    }
+
+    @Override
+    public Stream<ReservationDetails> findCreatedBetween(Instant from, Instant to) {
+        return gather(repository -> repository.findCreatedBetween(from, to).toList());
+    }
+
+    @Override
+    public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+        return shardOf(vehicleId).call(repository -> repository.isAvailableOnDates(vehicleId, fromDate, toDate));
+    }
+
+    /**
+     * Every shard checks its own candidates in parallel, a chunk of {@link #AVAILABILITY_CHUNK_SIZE} at a time; the
+     * stream yields the answers in the order the shards finish. A shard only gets its next chunk once the answers
+     * already in are consumed, so a caller taking the first vehicle leaves at most one chunk per shard checked, and
+     * closing the stream skips the chunks which have not started yet.
+     */
+    @Override
+    public Stream<UUID> findAvailableVehicles(VehicleType type, Collection<Vehicle> vehicles,
+                                              LocalDate fromDate, LocalDate toDate) {
+        List<List<Vehicle>> candidatesByShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            candidatesByShard.add(new ArrayList<>());
+        }
+        for (Vehicle vehicle : vehicles) {
+            candidatesByShard.get(shardOf(vehicle.getId()).index).add(vehicle);
+        }
+        AvailabilityScatter scatter = new AvailabilityScatter(candidatesByShard, type, fromDate, toDate);
+        return StreamSupport.stream(scatter, false).onClose(scatter::cancel);
+    }
+
+    @Override
+    public void deleteAll() {
+        List<CompletableFuture<Object>> results = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            results.add(shard.submit(repository -> {
+                repository.deleteAll();
+                return null;
+            }));
+        }
+        results.forEach(ShardedReservationRepository::join);
+        shardByReservationId.clear();
+    }
+
+    /**
+     * Stops the shard threads once they have drained their queues.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+    }
+
+    /**
+     * Runs the query on every shard in parallel; a shard's answer is only waited for when the stream reaches it.
+     */
+    private Stream<ReservationDetails> gather(Function<ReservationRepository, List<ReservationDetails>> query) {
+        List<CompletableFuture<List<ReservationDetails>>> results = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            results.add(shard.submit(query));
+        }
+        return results.stream().flatMap(result -> join(result).stream());
+    }
+
+    private Shard shardOf(UUID vehicleId) {
+        long hash = (vehicleId.getMostSignificantBits() ^ vehicleId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return shards[(int) ((hash >>> 32) % shards.length)];
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T takeUninterruptibly(BlockingQueue<T> queue) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Shard {
+        private final int index;
+        private final ReservationRepository repository;
+        private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(int index, ReservationRepository repository) {
+            this.index = index;
+            this.repository = repository;
+            this.thread = Thread.ofPlatform()
+                    .name("reservation-shard-" + index)
+                    .daemon()
+                    .start(this::run);
+        }
+
+        <T> T call(Function<ReservationRepository, T> command) {
+            return join(submit(command));
+        }
+
+        <T> CompletableFuture<T> submit(Function<ReservationRepository, T> command) {
+            if (!running) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Shard " + index + " is closed"));
+            }
+            CompletableFuture<T> result = new CompletableFuture<>();
+            commands.offer(new Command(() -> {
+                try {
+                    result.complete(command.apply(repository));
+                } catch (Throwable e) {
+                    // errors too, a dead shard thread would leave every later caller waiting forever
+                    result.completeExceptionally(e);
+                }
+            }, result));
+            LockSupport.unpark(thread);
+            if (!running && !thread.isAlive()) {
+                rejectPending();
+            }
+            return result;
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rejectPending();
+        }
+
+        /**
+         * Fails commands which raced with {@link #stop()} and were queued after the shard thread exited.
+         */
+        private void rejectPending() {
+            for (Command command = commands.poll(); command != null; command = commands.poll()) {
+                command.getResult().completeExceptionally(new RejectedExecutionException("Shard " + index + " is closed"));
+            }
+        }
+
+        private void run() {
+            while (true) {
+                Command command = commands.poll();
+                if (command != null) {
+                    command.getAction().run();
+                } else if (running) {
+                    LockSupport.park(this);
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Pulls the available vehicles from the shards chunk by chunk, on demand of the stream it backs.
+     */
+    private final class AvailabilityScatter extends Spliterators.AbstractSpliterator<UUID> {
+        private final List<List<Vehicle>> candidatesByShard;
+        private final VehicleType type;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final int[] nextCandidate;
+        private final boolean[] checking;
+        private final Queue<UUID> available = new ArrayDeque<>();
+        private final BlockingQueue<CompletableFuture<ChunkAnswer>> answers = new LinkedBlockingQueue<>();
+        private int pendingAnswers;
+        private volatile boolean cancelled;
+
+        private AvailabilityScatter(List<List<Vehicle>> candidatesByShard, VehicleType type, LocalDate fromDate,
+                                    LocalDate toDate) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.candidatesByShard = candidatesByShard;
+            this.type = type;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.nextCandidate = new int[candidatesByShard.size()];
+            this.checking = new boolean[candidatesByShard.size()];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super UUID> action) {
+            while (available.isEmpty()) {
+                scatterNextChunks();
+                if (pendingAnswers == 0) {
+                    return false;
+                }
+                ChunkAnswer answer = join(takeUninterruptibly(answers));
+                pendingAnswers--;
+                checking[answer.getShard()] = false;
+                available.addAll(answer.getAvailable());
+            }
+            action.accept(available.poll());
+            return true;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        private void scatterNextChunks() {
+            for (int shard = 0; shard < shards.length; shard++) {
+                List<Vehicle> candidates = candidatesByShard.get(shard);
+                if (checking[shard] || nextCandidate[shard] == candidates.size()) {
+                    continue;
+                }
+                int from = nextCandidate[shard];
+                List<Vehicle> chunk = candidates.subList(from, Math.min(from + AVAILABILITY_CHUNK_SIZE,
+                        candidates.size()));
+                nextCandidate[shard] += chunk.size();
+                checking[shard] = true;
+                pendingAnswers++;
+                int index = shard;
+                shards[shard].submit(repository -> cancelled ? List.<UUID>of()
+                                : repository.findAvailableVehicles(type, chunk, fromDate, toDate).toList())
+                        .whenComplete((vehicleIds, error) -> answers.add(error == null
+                                ? CompletableFuture.completedFuture(new ChunkAnswer(index, vehicleIds))
+                                : CompletableFuture.failedFuture(error)));
+            }
+        }
+    }
+
+    @Value
+    private static class ChunkAnswer {
+        int shard;
+        List<UUID> available;
+    }
+
+    @Value
+    private static class Command {
+        Runnable action;
+        CompletableFuture<?> result;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.respository;
+
+import java.util.UUID;
+
+/**
+ * Fixed set of monitors which serializes the writes of one vehicle without a global lock.
+ */
+class VehicleLockStripes {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final Object[] vehicleLocks;
+
+    VehicleLockStripes() {
+        this.vehicleLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.vehicleLocks[i] = new Object();
+        }
+    }
+
+    Object lockFor(UUID vehicleId) {
+        return vehicleLocks[Math.floorMod(vehicleId.hashCode(), LOCK_STRIPES)];
+    }
+}
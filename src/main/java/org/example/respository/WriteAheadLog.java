@@ -0,0 +1,255 @@
+package org.example.respository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log split into numbered segment files. Every segment starts with {@code [int magic][int version]},
+ * where the version is the one of the payload layout given by the owner. Every entry is framed as
+ * {@code [int length][int crc32][payload]} and gets a log sequence number. Forcing is decoupled from appending:
+ * {@link #sync(long)} forces everything written so far, so all appends which arrived while another thread was forcing
+ * are made durable by a single force call.
+ */
+class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int SEGMENT_MAGIC = 0x57414c53;
+    private static final int SEGMENT_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path directory;
+    private final int version;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object syncMonitor = new Object();
+    private ByteBuffer frame = ByteBuffer.allocate(256);
+    private FileChannel channel;
+    private long segment;
+    private volatile long writtenLsn;
+    private volatile long durableLsn;
+
+    private WriteAheadLog(Path directory, long segment, int version) {
+        this.directory = directory;
+        this.version = version;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+    }
+
+    /**
+     * Starts a new, empty segment with the given number; older segments are left as they are.
+     *
+     * @param version version of the payload layout, written to the header of every segment
+     */
+    static WriteAheadLog open(Path directory, long segment, int version) {
+        return new WriteAheadLog(directory, segment, version);
+    }
+
+    /**
+     * @return the sequence number of the appended entry
+     */
+    long append(ByteBuffer payload) {
+        appendLock.lock();
+        try {
+            int length = payload.remaining();
+            if (frame.capacity() < FRAME_HEADER_SIZE + length) {
+                frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            frame.clear();
+            frame.putInt(length).putInt((int) crc.getValue()).put(payload).flip();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            writtenLsn++;
+            return writtenLsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Returns once the entry with the given sequence number is on disk.
+     */
+    void sync(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (durableLsn >= lsn) {
+                return;
+            }
+            long target = writtenLsn;
+            force();
+            durableLsn = target;
+        }
+    }
+
+    long getWrittenLsn() {
+        return writtenLsn;
+    }
+
+    /**
+     * Forces the current segment and continues in a new one.
+     *
+     * @return number of the new segment; all entries appended before the call are in lower segments
+     */
+    long rotate() {
+        appendLock.lock();
+        try {
+            synchronized (syncMonitor) {
+                force();
+                durableLsn = writtenLsn;
+                channel.close();
+                segment++;
+                channel = openSegment(segment);
+                return segment;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    void deleteSegmentsBefore(long segment) {
+        for (long existing : segments(directory)) {
+            if (existing < segment) {
+                delete(segmentPath(directory, existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync(writtenLsn);
+        appendLock.lock();
+        try {
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return numbers of the segments in the directory, ascending
+     */
+    static List<Long> segments(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hands the payload of every intact entry in the segments from the given number on to the consumer.
+     * A segment is replayed up to its first torn entry, which can only be its tail: after a crash the log continues
+     * in a new segment. A segment written with another payload version is rejected before any entry is handed on.
+     */
+    static void replay(Path directory, long fromSegment, int version, Consumer<ByteBuffer> entryConsumer) {
+        List<Path> segments = segments(directory).stream()
+                .filter(segment -> segment >= fromSegment)
+                .map(segment -> segmentPath(directory, segment))
+                .toList();
+        segments.forEach(segment -> checkHeader(segment, version));
+        segments.forEach(segment -> replaySegment(segment, entryConsumer));
+    }
+
+    /**
+     * A segment shorter than its header was torn while being created and holds no entries.
+     */
+    private static void checkHeader(Path path, int version) {
+        try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            if (segmentChannel.read(header, 0) < SEGMENT_HEADER_SIZE) {
+                return;
+            }
+            if (header.getInt(0) != SEGMENT_MAGIC || header.getInt(Integer.BYTES) != version) {
+                throw new IllegalStateException("Unsupported log segment format: " + path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void replaySegment(Path path, Consumer<ByteBuffer> entryConsumer) {
+        try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (segmentChannel.size() < SEGMENT_HEADER_SIZE) {
+                return;
+            }
+            MappedByteBuffer entries = segmentChannel.map(FileChannel.MapMode.READ_ONLY, SEGMENT_HEADER_SIZE,
+                    segmentChannel.size() - SEGMENT_HEADER_SIZE);
+            while (entries.remaining() >= FRAME_HEADER_SIZE) {
+                int length = entries.getInt();
+                int checksum = entries.getInt();
+                if (length < 0 || length > entries.remaining()) {
+                    return;
+                }
+                ByteBuffer payload = entries.slice(entries.position(), length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                entryConsumer.accept(payload);
+                entries.position(entries.position() + length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void force() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileChannel openSegment(long segment) {
+        try {
+            FileChannel segmentChannel = FileChannel.open(segmentPath(directory, segment),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(SEGMENT_MAGIC).putInt(version).flip();
+            while (header.hasRemaining()) {
+                segmentChannel.write(header);
+            }
+            return segmentChannel;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
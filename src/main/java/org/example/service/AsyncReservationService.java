@@ -0,0 +1,35 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ReservationService}. Failures, including rejections because too many calls are
+ * in flight, complete the returned future exceptionally instead of being thrown.
+ */
+public interface AsyncReservationService extends AutoCloseable {
+
+    CompletableFuture<ReservationDetails> reserveCarByVehicleId(UUID id, LocalDate from, LocalDate to, int mileage,
+                                                                int licenseYears);
+
+    CompletableFuture<ReservationDetails> reserveCarByType(VehicleType type, LocalDate from, LocalDate to, int mileage,
+                                                           int licenseYears);
+
+    CompletableFuture<ReservationDetails> modifyReservation(UUID reservationId, LocalDate from, LocalDate to,
+                                                            int mileage, int licenseYears);
+
+    CompletableFuture<ReservationDetails> cancelReservation(UUID reservationId);
+
+    CompletableFuture<Map<VehicleType, Double>> getOptions(LocalDate from, LocalDate to, int mileage, int licenseYears);
+
+    /**
+     * Stops accepting calls and waits for the ones in flight.
+     */
+    @Override
+    void close();
+}
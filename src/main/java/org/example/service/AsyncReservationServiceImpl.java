@@ -0,0 +1,159 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs every call of the wrapped {@link ReservationService} on its own virtual thread.
+ * <p>
+ * Calls touching the same vehicle are chained behind each other, so they run one at a time; calls without a vehicle
+ * (booking by type, price options) run right away. A call on a reservation looks up its vehicle on its own thread:
+ * the calls of one reservation run in submission order, and each of them queues behind the calls of the vehicle once
+ * its own turn has come. Calls naming a vehicle run in submission order. Submitting never blocks the caller: a
+ * semaphore bounds the calls which are queued or running, once it is exhausted new calls are rejected instead of
+ * piling up.
+ */
+public class AsyncReservationServiceImpl implements AsyncReservationService {
+
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final AsyncServiceOptions options;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    /** last call queued per vehicle, removed again once that call completes */
+    private final Map<UUID, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    /** last call queued per reservation whose vehicle is not looked up yet */
+    private final Map<UUID, CompletableFuture<?>> reservationTails = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param reservationRepository the repository behind the service, used to find the vehicle of a reservation
+     */
+    public AsyncReservationServiceImpl(ReservationService reservationService, ReservationRepository reservationRepository,
+                                       AsyncServiceOptions options) {
+        this.reservationService = reservationService;
+        this.reservationRepository = reservationRepository;
+        this.options = options;
+        this.permits = new Semaphore(options.getMaxInFlight());
+    }
+
+    @Override
+    public CompletableFuture<ReservationDetails> reserveCarByVehicleId(UUID id, LocalDate from, LocalDate to,
+                                                                       int mileage, int licenseYears) {
+        return submit(id, () -> reservationService.reserveCarByVehicleId(id, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public CompletableFuture<ReservationDetails> reserveCarByType(VehicleType type, LocalDate from, LocalDate to,
+                                                                  int mileage, int licenseYears) {
+        return submit(null, () -> reservationService.reserveCarByType(type, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public CompletableFuture<ReservationDetails> modifyReservation(UUID reservationId, LocalDate from, LocalDate to,
+                                                                   int mileage, int licenseYears) {
+        return submitForReservation(reservationId,
+                () -> reservationService.modifyReservation(reservationId, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public CompletableFuture<ReservationDetails> cancelReservation(UUID reservationId) {
+        return submitForReservation(reservationId, () -> reservationService.cancelReservation(reservationId));
+    }
+
+    @Override
+    public CompletableFuture<Map<VehicleType, Double>> getOptions(LocalDate from, LocalDate to, int mileage,
+                                                                  int licenseYears) {
+        return submit(null, () -> reservationService.getOptions(from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        permits.acquireUninterruptibly(options.getMaxInFlight());
+        executor.close();
+    }
+
+    /**
+     * A reservation which is not (or no longer) stored has no vehicle, its id serializes the calls instead.
+     */
+    private UUID vehicleKeyOf(UUID reservationId) {
+        return reservationRepository.findById(reservationId)
+                .map(reservationDetails -> reservationDetails.getVehicle().getId())
+                .orElse(reservationId);
+    }
+
+    /**
+     * Queues the call behind the earlier calls of the reservation; once it runs, the vehicle is looked up and the call
+     * is queued behind the calls of the vehicle, holding the turn of the reservation until it completes.
+     */
+    private <T> CompletableFuture<T> submitForReservation(UUID reservationId, Supplier<T> call) {
+        if (reservationId == null) {
+            return submit(null, call);
+        }
+        return submit(reservationId, reservationTails, () -> {
+            try {
+                return chain(vehicleKeyOf(reservationId), tails, call).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(UUID key, Supplier<T> call) {
+        return submit(key, tails, call);
+    }
+
+    private <T> CompletableFuture<T> submit(UUID key, Map<UUID, CompletableFuture<?>> queues, Supplier<T> call) {
+        if (closed || !permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    closed ? "Reservation service is closed" : "Too many reservation calls in flight"));
+        }
+        CompletableFuture<T> result;
+        try {
+            result = key == null ? CompletableFuture.supplyAsync(call, executor) : chain(key, queues, call);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> permits.release());
+        return result;
+    }
+
+    private <T> CompletableFuture<T> chain(UUID key, Map<UUID, CompletableFuture<?>> queues, Supplier<T> call) {
+        CompletableFuture<T> next = new CompletableFuture<>();
+        CompletableFuture<?> previous = queues.put(key, next);
+        CompletableFuture<?> start = previous == null
+                ? CompletableFuture.completedFuture(null)
+                : previous.handle((value, error) -> null);
+        start.thenRunAsync(() -> {
+            try {
+                next.complete(call.get());
+            } catch (RuntimeException e) {
+                next.completeExceptionally(e);
+            }
+        }, executor).whenComplete((ignored, error) -> {
+            if (error != null) {
+                next.completeExceptionally(error);
+            }
+            queues.remove(key, next);
+        });
+        return next;
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.service;
+
+import lombok.Getter;
+
+@Getter
+public class AsyncServiceOptions {
+    private final int maxInFlight;
+
+    private AsyncServiceOptions(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static class AsyncServiceOptionsBuilder {
+        private int maxInFlight = 1024;
+
+        public static AsyncServiceOptionsBuilder newInstance() {
+            return new AsyncServiceOptionsBuilder();
+        }
+
+        /**
+         * @param maxInFlight number of calls which may be queued or running at the same time, further calls are
+         *                    rejected right away
+         */
+        public AsyncServiceOptionsBuilder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) {
+                throw new IllegalArgumentException("Max in-flight calls must be positive");
+            }
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public AsyncServiceOptions build() {
+            return new AsyncServiceOptions(maxInFlight);
+        }
+    }
+}
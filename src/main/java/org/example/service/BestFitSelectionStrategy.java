@@ -0,0 +1,158 @@
+package org.example.service;
+
+import lombok.Value;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tries first the vehicles whose existing bookings leave the smallest gap next to the requested dates, so bookings
+ * are packed against each other and the long free stretches of the fleet stay free for long reservations.
+ * <p>
+ * Every type indexes the first and the last day of the bookings made through the service in two skip lists. The
+ * vehicles closest to the requested dates are found by walking back from the first requested day through the last
+ * days and forward from the last requested day through the first days, always continuing with whichever side has
+ * the smaller gap. Vehicles without an indexed booking next to the dates are tried last.
+ */
+public class BestFitSelectionStrategy implements VehicleSelectionStrategy {
+
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Comparator<Edge> BY_DAY = Comparator.comparingLong(Edge::getEpochDay)
+            .thenComparing(Edge::getVehicleId);
+
+    private final Map<VehicleType, Index> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public Stream<UUID> findCandidates(VehicleType type, Set<Vehicle> vehicles, LocalDate fromDate, LocalDate toDate,
+                                       ReservationRepository reservationRepository) {
+        Index index = index(type, vehicles);
+        Iterator<Edge> before = index.lastDays.headSet(new Edge(fromDate.toEpochDay(), LOWEST_ID), false)
+                .descendingIterator();
+        Iterator<Edge> after = index.firstDays.tailSet(new Edge(toDate.toEpochDay() + 1, LOWEST_ID), true)
+                .iterator();
+        Iterator<UUID> closest = new ClosestFirstIterator(before, fromDate.toEpochDay(), after, toDate.toEpochDay());
+        Set<UUID> tried = new HashSet<>();
+        return Stream.concat(StreamSupport.stream(Spliterators.spliteratorUnknownSize(closest, Spliterator.ORDERED), false)
+                                .filter(index.fleet::contains),
+                        vehicles == null ? Stream.empty() : vehicles.stream().map(Vehicle::getId))
+                .filter(tried::add)
+                .filter(vehicleId -> reservationRepository.isAvailableOnDates(vehicleId, fromDate, toDate));
+    }
+
+    @Override
+    public void reserved(ReservationDetails reservationDetails) {
+        Index index = indexes.computeIfAbsent(reservationDetails.getVehicle().getType(),
+                type -> new Index(FleetSnapshot.EMPTY));
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        index.firstDays.add(new Edge(reservationDetails.getFromDate().toEpochDay(), vehicleId));
+        index.lastDays.add(new Edge(reservationDetails.getToDate().toEpochDay(), vehicleId));
+    }
+
+    @Override
+    public void released(ReservationDetails reservationDetails) {
+        Index index = indexes.get(reservationDetails.getVehicle().getType());
+        if (index != null) {
+            UUID vehicleId = reservationDetails.getVehicle().getId();
+            index.firstDays.remove(new Edge(reservationDetails.getFromDate().toEpochDay(), vehicleId));
+            index.lastDays.remove(new Edge(reservationDetails.getToDate().toEpochDay(), vehicleId));
+        }
+    }
+
+    /**
+     * Keeps the indexed bookings when the fleet changes, only the snapshot used to skip vehicles which left the
+     * fleet is replaced.
+     */
+    private Index index(VehicleType type, Set<Vehicle> vehicles) {
+        return indexes.compute(type, (key, index) -> {
+            if (index == null) {
+                return new Index(FleetSnapshot.of(vehicles));
+            }
+            return index.fleet.isSnapshotOf(vehicles) ? index : index.withFleet(FleetSnapshot.of(vehicles));
+        });
+    }
+
+    @Value
+    private static class Edge {
+        long epochDay;
+        UUID vehicleId;
+    }
+
+    private static class Index {
+        private final FleetSnapshot fleet;
+        private final NavigableSet<Edge> firstDays;
+        private final NavigableSet<Edge> lastDays;
+
+        private Index(FleetSnapshot fleet) {
+            this(fleet, new ConcurrentSkipListSet<>(BY_DAY), new ConcurrentSkipListSet<>(BY_DAY));
+        }
+
+        private Index(FleetSnapshot fleet, NavigableSet<Edge> firstDays, NavigableSet<Edge> lastDays) {
+            this.fleet = fleet;
+            this.firstDays = firstDays;
+            this.lastDays = lastDays;
+        }
+
+        private Index withFleet(FleetSnapshot fleet) {
+            return new Index(fleet, firstDays, lastDays);
+        }
+    }
+
+    /**
+     * Merges the bookings ending before and starting after the requested dates by the size of the gap they leave.
+     */
+    private static class ClosestFirstIterator implements Iterator<UUID> {
+        private final Iterator<Edge> before;
+        private final long fromDay;
+        private final Iterator<Edge> after;
+        private final long toDay;
+        private Edge nextBefore;
+        private Edge nextAfter;
+
+        private ClosestFirstIterator(Iterator<Edge> before, long fromDay, Iterator<Edge> after, long toDay) {
+            this.before = before;
+            this.fromDay = fromDay;
+            this.after = after;
+            this.toDay = toDay;
+            this.nextBefore = before.hasNext() ? before.next() : null;
+            this.nextAfter = after.hasNext() ? after.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextBefore != null || nextAfter != null;
+        }
+
+        @Override
+        public UUID next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextAfter == null
+                    || nextBefore != null && fromDay - nextBefore.getEpochDay() <= nextAfter.getEpochDay() - toDay) {
+                UUID vehicleId = nextBefore.getVehicleId();
+                nextBefore = before.hasNext() ? before.next() : null;
+                return vehicleId;
+            }
+            UUID vehicleId = nextAfter.getVehicleId();
+            nextAfter = after.hasNext() ? after.next() : null;
+            return vehicleId;
+        }
+    }
+}
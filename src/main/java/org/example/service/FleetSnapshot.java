@@ -0,0 +1,95 @@
+package org.example.service;
+
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Vehicle ids of one type copied out of the fleet, so strategies can index them by position. A snapshot is
+ * rebuilt when the fleet set it was taken from is replaced or changes its size.
+ */
+class FleetSnapshot {
+
+    static final FleetSnapshot EMPTY = new FleetSnapshot(Set.of());
+
+    /** vehicles of the first availability check; every further check asks for twice as many */
+    static final int FIRST_CHUNK_SIZE = 4;
+    static final int MAXIMUM_CHUNK_SIZE = 256;
+
+    private final Set<Vehicle> source;
+    private final UUID[] vehicleIds;
+    private final Map<UUID, Vehicle> vehiclesById;
+
+    private FleetSnapshot(Set<Vehicle> source) {
+        this.source = source;
+        this.vehicleIds = source.stream().map(Vehicle::getId).toArray(UUID[]::new);
+        this.vehiclesById = new HashMap<>(source.size() * 2);
+        source.forEach(vehicle -> vehiclesById.put(vehicle.getId(), vehicle));
+    }
+
+    static FleetSnapshot of(Set<Vehicle> vehicles) {
+        return vehicles == null || vehicles.isEmpty() ? EMPTY : new FleetSnapshot(vehicles);
+    }
+
+    boolean isSnapshotOf(Set<Vehicle> vehicles) {
+        if (vehicles == null || vehicles.isEmpty()) {
+            return vehicleIds.length == 0;
+        }
+        return source == vehicles && vehicleIds.length == vehicles.size();
+    }
+
+    int size() {
+        return vehicleIds.length;
+    }
+
+    UUID get(int index) {
+        return vehicleIds[index];
+    }
+
+    boolean contains(UUID vehicleId) {
+        return vehiclesById.containsKey(vehicleId);
+    }
+
+    /**
+     * Asks {@link ReservationRepository#findAvailableVehicles} about the given vehicles of the snapshot a chunk at a
+     * time, on demand of the returned stream, so a search taking the first free vehicle stops after the chunk which
+     * holds it. Chunks double from {@link #FIRST_CHUNK_SIZE} up to {@link #MAXIMUM_CHUNK_SIZE}, which keeps a search
+     * through a busy fleet to a logarithmic number of calls of an indexed repository.
+     *
+     * @param orderedVehicleIds lazily evaluated ids in the order of the strategy; ids not in the snapshot are skipped
+     * @return the available ones among them in the same order
+     */
+    Stream<UUID> findAvailable(Stream<UUID> orderedVehicleIds, VehicleType type, LocalDate fromDate, LocalDate toDate,
+                               ReservationRepository reservationRepository) {
+        Iterator<UUID> vehicleIds = orderedVehicleIds.iterator();
+        int[] chunkSize = {FIRST_CHUNK_SIZE};
+        return Stream.generate(() -> {
+                    List<Vehicle> chunk = new ArrayList<>(chunkSize[0]);
+                    while (chunk.size() < chunkSize[0] && vehicleIds.hasNext()) {
+                        Vehicle vehicle = vehiclesById.get(vehicleIds.next());
+                        if (vehicle != null) {
+                            chunk.add(vehicle);
+                        }
+                    }
+                    chunkSize[0] = Math.min(chunkSize[0] * 2, MAXIMUM_CHUNK_SIZE);
+                    return chunk;
+                })
+                .takeWhile(chunk -> !chunk.isEmpty())
+                .flatMap(chunk -> {
+                    Set<UUID> available = reservationRepository.findAvailableVehicles(type, chunk, fromDate, toDate)
+                            .collect(Collectors.toSet());
+                    return chunk.stream().map(Vehicle::getId).filter(available::contains);
+                });
+    }
+}
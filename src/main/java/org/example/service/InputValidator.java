@@ -1,6 +1,7 @@
 package org.example.service;
 
 import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
 import org.example.errors.IllegalLicenseYearsException;
 import org.example.errors.IllegalMileageException;
 import org.example.errors.InvalidDateRangeException;
@@ -51,6 +52,18 @@ public class InputValidator {
         }
     }
 
+    public static void validateSearch(VehicleType type, LocalDate windowFrom, LocalDate windowTo, int stayDays) {
+        if (type == null || windowFrom == null || windowTo == null) {
+            throwIllegalArgumentException("All fields must be set");
+        }
+        if (stayDays < 0) {
+            throwIllegalArgumentException("Stay days must not be negative");
+        }
+        if (windowFrom.isAfter(windowTo)) {
+            throwInvalidDateRangeException();
+        }
+    }
+
     private static void throwIllegalArgumentException(String message) {
         throw new IllegalArgumentException(message);
     }
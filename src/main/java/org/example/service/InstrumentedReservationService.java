@@ -0,0 +1,120 @@
+package org.example.service;
+
+import org.example.domain.AvailableSlot;
+import org.example.domain.ReservationDetails;
+import org.example.domain.ReservationOutcome;
+import org.example.domain.ReservationRequest;
+import org.example.domain.VehicleType;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.metrics.Counter;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.MetricsRegistry;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Counts the calls of a {@link ReservationService} and their outcome and records their latency in nanoseconds, under
+ * {@code reservation.service.<method>.(requests|successes|notPossible|failures|latency)}.
+ */
+public class InstrumentedReservationService implements ReservationService {
+
+    private static final String PREFIX = "reservation.service.";
+
+    private final ReservationService delegate;
+    private final Operation reserveCarByVehicleId;
+    private final Operation reserveCarByType;
+    private final Operation modifyReservation;
+    private final Operation cancelReservation;
+    private final Operation getOptions;
+    private final Operation findAvailability;
+    private final Operation reserveBatch;
+
+    public InstrumentedReservationService(ReservationService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.reserveCarByVehicleId = new Operation(registry, "reserveCarByVehicleId");
+        this.reserveCarByType = new Operation(registry, "reserveCarByType");
+        this.modifyReservation = new Operation(registry, "modifyReservation");
+        this.cancelReservation = new Operation(registry, "cancelReservation");
+        this.getOptions = new Operation(registry, "getOptions");
+        this.findAvailability = new Operation(registry, "findAvailability");
+        this.reserveBatch = new Operation(registry, "reserveBatch");
+    }
+
+    @Override
+    public ReservationDetails reserveCarByVehicleId(UUID id, LocalDate from, LocalDate to, int mileage, int licenseYears) {
+        return reserveCarByVehicleId.record(() -> delegate.reserveCarByVehicleId(id, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public ReservationDetails reserveCarByType(VehicleType type, LocalDate from, LocalDate to, int mileage, int licenseYears) {
+        return reserveCarByType.record(() -> delegate.reserveCarByType(type, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public ReservationDetails modifyReservation(UUID reservationId, LocalDate from, LocalDate to, int mileage, int licenseYears) {
+        return modifyReservation.record(() -> delegate.modifyReservation(reservationId, from, to, mileage, licenseYears));
+    }
+
+    @Override
+    public ReservationDetails cancelReservation(UUID reservationId) {
+        return cancelReservation.record(() -> delegate.cancelReservation(reservationId));
+    }
+
+    @Override
+    public Map<VehicleType, Double> getOptions(LocalDate from, LocalDate to, int mileage, int licenseYears) {
+        return getOptions.record(() -> delegate.getOptions(from, to, mileage, licenseYears));
+    }
+
+    /**
+     * The latency covers building the search, not consuming the returned stream.
+     */
+    @Override
+    public Stream<AvailableSlot> findAvailability(VehicleType type, LocalDate windowFrom, LocalDate windowTo,
+                                                  int stayDays) {
+        return findAvailability.record(() -> delegate.findAvailability(type, windowFrom, windowTo, stayDays));
+    }
+
+    @Override
+    public List<ReservationOutcome> reserveBatch(List<ReservationRequest> requests) {
+        return reserveBatch.record(() -> delegate.reserveBatch(requests));
+    }
+
+    private static class Operation {
+        private final Counter requests;
+        private final Counter successes;
+        private final Counter notPossible;
+        private final Counter failures;
+        private final LatencyHistogram latency;
+
+        private Operation(MetricsRegistry registry, String method) {
+            this.requests = registry.counter(PREFIX + method + ".requests");
+            this.successes = registry.counter(PREFIX + method + ".successes");
+            this.notPossible = registry.counter(PREFIX + method + ".notPossible");
+            this.failures = registry.counter(PREFIX + method + ".failures");
+            this.latency = registry.histogram(PREFIX + method + ".latency");
+        }
+
+        <T> T record(Supplier<T> call) {
+            requests.increment();
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                successes.increment();
+                return result;
+            } catch (ReservationNotPossibleException e) {
+                notPossible.increment();
+                throw e;
+            } catch (RuntimeException e) {
+                failures.increment();
+                throw e;
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.service;
+
+import lombok.Value;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Tries the vehicles with the fewest reserved days first. Every type keeps its vehicles in a skip list ordered by
+ * reserved days, so the least used vehicle is found in logarithmic time and a reservation moves its vehicle with one
+ * removal and one insertion. Which of them are free is asked from
+ * {@link ReservationRepository#findAvailableVehicles} in growing chunks along the skip list, so a search walks it only
+ * up to the first chunk with a free vehicle.
+ */
+public class LeastUtilizedSelectionStrategy implements VehicleSelectionStrategy {
+
+    private static final Comparator<Usage> BY_RESERVED_DAYS = Comparator.comparingLong(Usage::getReservedDays)
+            .thenComparing(Usage::getVehicleId);
+
+    private final Map<UUID, Long> reservedDaysByVehicle = new ConcurrentHashMap<>();
+    private final Map<VehicleType, Index> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public Stream<UUID> findCandidates(VehicleType type, Set<Vehicle> vehicles, LocalDate fromDate, LocalDate toDate,
+                                       ReservationRepository reservationRepository) {
+        Index index = index(type, vehicles);
+        return index.fleet.findAvailable(index.byUsage.stream().map(Usage::getVehicleId), type, fromDate, toDate,
+                reservationRepository);
+    }
+
+    @Override
+    public void reserved(ReservationDetails reservationDetails) {
+        addReservedDays(reservationDetails, getDays(reservationDetails));
+    }
+
+    @Override
+    public void released(ReservationDetails reservationDetails) {
+        addReservedDays(reservationDetails, -getDays(reservationDetails));
+    }
+
+    /**
+     * @return number of days reserved through the service on the given vehicle
+     */
+    public long getReservedDays(UUID vehicleId) {
+        return reservedDaysByVehicle.getOrDefault(vehicleId, 0L);
+    }
+
+    /**
+     * Runs in the mapping of the type, so it never interleaves with a rebuild of the index of the type.
+     */
+    private void addReservedDays(ReservationDetails reservationDetails, long days) {
+        UUID vehicleId = reservationDetails.getVehicle().getId();
+        indexes.compute(reservationDetails.getVehicle().getType(), (type, index) -> {
+            long previous = getReservedDays(vehicleId);
+            reservedDaysByVehicle.put(vehicleId, previous + days);
+            if (index != null && index.byUsage.remove(new Usage(previous, vehicleId))) {
+                index.byUsage.add(new Usage(previous + days, vehicleId));
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Rebuilds the index of a changed fleet in the mapping of the type, so no reservation is counted in the reserved
+     * days but missed by the new index.
+     */
+    private Index index(VehicleType type, Set<Vehicle> vehicles) {
+        Index index = indexes.get(type);
+        if (index != null && index.fleet.isSnapshotOf(vehicles)) {
+            return index;
+        }
+        return indexes.compute(type, (key, current) -> {
+            if (current != null && current.fleet.isSnapshotOf(vehicles)) {
+                return current;
+            }
+            Index rebuilt = new Index(FleetSnapshot.of(vehicles));
+            for (int i = 0; i < rebuilt.fleet.size(); i++) {
+                UUID vehicleId = rebuilt.fleet.get(i);
+                rebuilt.byUsage.add(new Usage(getReservedDays(vehicleId), vehicleId));
+            }
+            return rebuilt;
+        });
+    }
+
+    private static long getDays(ReservationDetails reservationDetails) {
+        return ChronoUnit.DAYS.between(reservationDetails.getFromDate(), reservationDetails.getToDate()) + 1;
+    }
+
+    @Value
+    private static class Usage {
+        long reservedDays;
+        UUID vehicleId;
+    }
+
+    private static class Index {
+        private final FleetSnapshot fleet;
+        private final NavigableSet<Usage> byUsage = new ConcurrentSkipListSet<>(BY_RESERVED_DAYS);
+
+        private Index(FleetSnapshot fleet) {
+            this.fleet = fleet;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.service;
+
+import org.example.domain.Money;
+import org.example.domain.VehicleType;
+import org.example.pricing.PricingEngine;
+import org.example.pricing.Tariff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Allocation-free pricing of all vehicle types in cents into caller supplied arrays indexed by
+ * {@link VehicleType#ordinal()}.
+ */
+public class PriceQuotes {
+
+    private static final VehicleType[] TYPES = VehicleType.values();
+    public static final int TYPE_COUNT = TYPES.length;
+
+    /**
+     * @param centsByOrdinal receives the price of every type at the index of its ordinal
+     */
+    public static void quote(long days, int mileage, int licenseYears, long[] centsByOrdinal) {
+        quote(PricingEngine.getTariff(), Tariff.UNDATED, days, mileage, licenseYears, centsByOrdinal);
+    }
+
+    /**
+     * @param fromEpochDay first rental day, or {@link Tariff#UNDATED}
+     * @param centsByOrdinal receives the price of every type at the index of its ordinal
+     */
+    public static void quote(Tariff tariff, long fromEpochDay, long days, int mileage, int licenseYears,
+                             long[] centsByOrdinal) {
+        tariff.priceAll(fromEpochDay, days, mileage, licenseYears, centsByOrdinal);
+    }
+
+    /**
+     * Insertion sort of the type ordinals by price, cheapest first; equal prices keep the declaration order.
+     *
+     * @param ordinalsByRank receives the ordinals of all types in ascending order of their price
+     */
+    public static void rankByPrice(long[] centsByOrdinal, int[] ordinalsByRank) {
+        for (int rank = 0; rank < TYPE_COUNT; rank++) {
+            int ordinal = rank;
+            int position = rank;
+            while (position > 0 && centsByOrdinal[ordinalsByRank[position - 1]] > centsByOrdinal[ordinal]) {
+                ordinalsByRank[position] = ordinalsByRank[position - 1];
+                position--;
+            }
+            ordinalsByRank[position] = ordinal;
+        }
+    }
+
+    /**
+     * @return the ranked prices in whole units, see {@link Money#toDouble(long)}, as a map iterating from the cheapest
+     * to the most expensive type
+     */
+    public static Map<VehicleType, Double> toOptions(long[] centsByOrdinal, int[] ordinalsByRank) {
+        Map<VehicleType, Double> options = new LinkedHashMap<>();
+        for (int rank = 0; rank < TYPE_COUNT; rank++) {
+            int ordinal = ordinalsByRank[rank];
+            options.put(TYPES[ordinal], Money.toDouble(centsByOrdinal[ordinal]));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.service;
+
+import lombok.Value;
+import org.example.domain.VehicleType;
+import org.example.pricing.Tariff;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of the sorted price options per (tariff, start day, days, mileage, license-years). The start day
+ * is only part of the key under a date-dependent tariff. Entries of an older tariff can never be hit, as the tariff
+ * version is part of the key, and are dropped through {@link #invalidateAll()} on the first lookup under a newer one;
+ * a lookup which still holds an older tariff during a reload neither moves the version back nor invalidates.
+ * <p>
+ * The keys are spread over up to {@link #MAXIMUM_STRIPES} stripes by hash, each an access-ordered map with its own
+ * lock and an equal share of the maximum size, so concurrent quotes rarely contend on a lock; eviction is least
+ * recently used per stripe. A load which overlaps {@link #invalidateAll()} is returned but not cached.
+ */
+public class QuoteCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+    static final int MAXIMUM_STRIPES = 16;
+    /**
+     * Smallest share of the maximum size per stripe, smaller caches use fewer stripes to stay close to a global LRU.
+     */
+    private static final int MINIMUM_STRIPE_SIZE = 64;
+
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+    /** highest tariff version looked up so far */
+    private final AtomicLong tariffVersion = new AtomicLong();
+
+    public QuoteCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        int stripeCount = Math.max(1,
+                Math.min(MAXIMUM_STRIPES, Integer.highestOneBit(maximumSize / MINIMUM_STRIPE_SIZE)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maximumSize / stripeCount + (i < maximumSize % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param fromEpochDay first rental day; ignored unless the tariff is date dependent
+     * @param loader computes the options under the given tariff on a miss; its result must not be modified afterwards
+     * @return the cached options, shared between callers and therefore read-only
+     */
+    public Map<VehicleType, Double> get(Tariff tariff, long fromEpochDay, long days, int mileage, int licenseYears,
+                                        QuoteLoader loader) {
+        long version = tariff.getVersion();
+        if (version > tariffVersion.get() && tariffVersion.getAndAccumulate(version, Math::max) < version) {
+            invalidateAll();
+        }
+        return get(new QuoteKey(tariff.getVersion(), tariff.isDateDependent() ? fromEpochDay : Tariff.UNDATED,
+                days, mileage, licenseYears), loader);
+    }
+
+    private Map<VehicleType, Double> get(QuoteKey key, QuoteLoader loader) {
+        Stripe stripe = stripeOf(key);
+        Map<VehicleType, Double> options;
+        synchronized (stripe) {
+            options = stripe.quotes.get(key);
+        }
+        if (options != null) {
+            hits.increment();
+            return options;
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        options = loader.load(key.getDays(), key.getMileage(), key.getLicenseYears());
+        synchronized (stripe) {
+            // invalidateAll() bumps the generation before it clears the stripes under their locks
+            if (generation.get() == loadGeneration) {
+                stripe.quotes.put(key, options);
+            }
+        }
+        return options;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.quotes.clear();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.quotes.size();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Stripe stripeOf(QuoteKey key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    @FunctionalInterface
+    public interface QuoteLoader {
+        Map<VehicleType, Double> load(long days, int mileage, int licenseYears);
+    }
+
+    @Value
+    public static class Stats {
+        long hits;
+        long misses;
+        long evictions;
+        int size;
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private class Stripe {
+        private final Map<QuoteKey, Map<VehicleType, Double>> quotes;
+
+        private Stripe(int maximumSize) {
+            this.quotes = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<QuoteKey, Map<VehicleType, Double>> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    @Value
+    private static class QuoteKey {
+        long tariffVersion;
+        long fromEpochDay;
+        long days;
+        int mileage;
+        int licenseYears;
+    }
+}
@@ -1,11 +1,16 @@
 package org.example.service;
 
+import org.example.domain.AvailableSlot;
 import org.example.domain.ReservationDetails;
+import org.example.domain.ReservationOutcome;
+import org.example.domain.ReservationRequest;
 import org.example.domain.VehicleType;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ReservationService {
 
@@ -18,4 +23,22 @@ public interface ReservationService {
     ReservationDetails cancelReservation(UUID reservationId);
 
     Map<VehicleType, Double> getOptions(LocalDate from, LocalDate to, int mileage, int licenseYears);
+
+    /**
+     * Finds every vehicle of the type and every start date on which it is free for a stay which begins and ends
+     * within the window. A stay of {@code stayDays} starting on a day {@code d} is priced and reserved like the dates
+     * {@code d} to {@code d + stayDays}.
+     *
+     * @return lazily evaluated slots, per vehicle ascending by date; reservations made while the stream is consumed
+     * are not reflected
+     */
+    Stream<AvailableSlot> findAvailability(VehicleType type, LocalDate windowFrom, LocalDate windowTo, int stayDays);
+
+    /**
+     * Reserves all rows in one pass, in input order: of the rows competing for the same vehicle and dates, whether
+     * for the vehicle or for its type, the first one wins.
+     *
+     * @return one outcome per row, in input order; failures are reported instead of thrown
+     */
+    List<ReservationOutcome> reserveBatch(List<ReservationRequest> requests);
 }
\ No newline at end of file
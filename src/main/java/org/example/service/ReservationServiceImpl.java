@@ -2,22 +2,36 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.audit.AuditTrail;
+import org.example.domain.AvailableSlot;
 import org.example.domain.ReservationDetails;
+import org.example.domain.ReservationOutcome;
+import org.example.domain.ReservationRequest;
 import org.example.domain.Vehicle;
 import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
 import org.example.errors.ReservationNotPossibleException;
+import org.example.pricing.PricingEngine;
+import org.example.pricing.Tariff;
 import org.example.respository.ReservationRepository;
 import org.example.respository.VehicleRepository;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.example.service.InputValidator.validateInputs;
+import static org.example.service.InputValidator.validateSearch;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -26,22 +40,43 @@ public class ReservationServiceImpl implements ReservationService {
 
     private final ReservationRepository reservationRepository;
     private final VehicleRepository vehicleRepository;
+    private final QuoteCache quoteCache;
+    private final AuditTrail auditTrail;
+    private final VehicleSelectionStrategy selectionStrategy;
 
+    public ReservationServiceImpl(ReservationRepository reservationRepository, VehicleRepository vehicleRepository) {
+        this(reservationRepository, vehicleRepository, AuditTrail.NONE);
+    }
+
+    public ReservationServiceImpl(ReservationRepository reservationRepository, VehicleRepository vehicleRepository,
+                                  AuditTrail auditTrail) {
+        this(reservationRepository, vehicleRepository, new QuoteCache(QuoteCache.DEFAULT_MAXIMUM_SIZE), auditTrail,
+                VehicleSelectionStrategy.FIRST_AVAILABLE);
+    }
+
+    public ReservationServiceImpl(ReservationRepository reservationRepository, VehicleRepository vehicleRepository,
+                                  VehicleSelectionStrategy selectionStrategy) {
+        this(reservationRepository, vehicleRepository, new QuoteCache(QuoteCache.DEFAULT_MAXIMUM_SIZE), AuditTrail.NONE,
+                selectionStrategy);
+    }
 
     @Override
     public ReservationDetails reserveCarByVehicleId(UUID vehicleId, LocalDate fromDate, LocalDate toDate, int mileage, int licenseYears) {
-        if (reservationRepository.isAvailableOnDates(vehicleId, fromDate, toDate)) {
-            ReservationDetails reservationDetails = buildReservationDetails(vehicleId, fromDate, toDate, mileage, licenseYears);
-            reservationRepository.save(reservationDetails);
-            log.info("Reserved car details:{}", reservationDetails);
+        ReservationDetails reservationDetails = buildReservationDetails(vehicleId, fromDate, toDate, mileage, licenseYears);
+        if (reservationRepository.tryReserve(reservationDetails)) {
+            reserved(reservationDetails);
             return reservationDetails;
         }
         throw new ReservationNotPossibleException(vehicleId, fromDate, toDate);
     }
 
     private ReservationDetails buildReservationDetails(UUID vehicleId, LocalDate fromDate, LocalDate toDate, int mileage, int licenseYears) {
+        return buildReservationDetails(vehicleRepository.getVehicleByVehicleId(vehicleId), fromDate, toDate, mileage, licenseYears);
+    }
+
+    private static ReservationDetails buildReservationDetails(Vehicle vehicle, LocalDate fromDate, LocalDate toDate, int mileage, int licenseYears) {
         return ReservationDetails.ReservationDetailsBuilder.newInstance()
-                .vehicle(vehicleRepository.getVehicleByVehicleId(vehicleId))
+                .vehicle(vehicle)
                 .fromDate(fromDate)
                 .toDate(toDate)
                 .mileage(mileage)
@@ -51,65 +86,156 @@ public class ReservationServiceImpl implements ReservationService {
 
     @Override
     public ReservationDetails reserveCarByType(VehicleType type, LocalDate fromDate, LocalDate toDate, int mileage, int licenseYears) {
-        ReservationDetails reservationDetails = vehicleRepository.getVehiclesByType(type)
-                .stream()
-                .map(Vehicle::getId)
-                .filter(vehicleId -> reservationRepository.isAvailableOnDates(vehicleId, fromDate, toDate))
-                .findAny()
-                .map(vehicleId -> {
-                    ReservationDetails details = buildReservationDetails(vehicleId, fromDate, toDate, mileage, licenseYears);
-                    reservationRepository.save(details);
-                    return details;
-                })
+        ReservationDetails reservationDetails = selectionStrategy
+                .findCandidates(type, vehicleRepository.getVehiclesByType(type), fromDate, toDate, reservationRepository)
+                .map(vehicleId -> buildReservationDetails(vehicleId, fromDate, toDate, mileage, licenseYears))
+                .filter(reservationRepository::tryReserve)
+                .findFirst()
                 .orElseThrow(() -> new ReservationNotPossibleException(type, fromDate, toDate));
-        log.info("Reserved car details:{}", reservationDetails);
+        reserved(reservationDetails);
         return reservationDetails;
     }
 
     @Override
     public ReservationDetails modifyReservation(UUID reservationId, LocalDate fromDate, LocalDate toDate, int mileage, int licenseYears) {
-        ReservationDetails reservationDetails = reservationRepository.remove(reservationId);
-        ReservationDetails modifiedReservationDetails = reserveCarByVehicleId(reservationDetails.getVehicle().getId(), fromDate, toDate, mileage, licenseYears);
-        log.info("Old reservation:{} modified to:{}", reservationDetails, modifiedReservationDetails);
+        ReservationDetails reservationDetails = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new InvalidReservationIdException(reservationId.toString()));
+        ReservationDetails modifiedReservationDetails = buildReservationDetails(reservationDetails.getVehicle(), fromDate, toDate, mileage, licenseYears);
+        if (!reservationRepository.replace(reservationId, modifiedReservationDetails)) {
+            throw new ReservationNotPossibleException(reservationDetails.getVehicle().getId(), fromDate, toDate);
+        }
+        selectionStrategy.released(reservationDetails);
+        selectionStrategy.reserved(modifiedReservationDetails);
+        auditTrail.modified(reservationDetails, modifiedReservationDetails);
         return modifiedReservationDetails;
     }
 
     @Override
     public ReservationDetails cancelReservation(UUID reservationId) {
         ReservationDetails details = reservationRepository.remove(reservationId);
-        log.info("Removed reservation details with id:{}", reservationId);
+        selectionStrategy.released(details);
+        auditTrail.cancelled(details);
         return details;
     }
 
     @Override
     public Map<VehicleType, Double> getOptions(LocalDate from, LocalDate to, int mileage, int licenseYears) {
         validateInputs(from, to, mileage, licenseYears);
-        Map<VehicleType, Double> options = getVehicleTypePriceOptions(from, to, mileage, licenseYears);
-        log.info("Vehicle options priced by type in un-sorted order:{}", options);
-        Map<VehicleType, Double> sortedOptions = sortBasedOnPrice(options);
-        log.info("Vehicle options priced by type in sorted order:{}", sortedOptions);
-        return sortedOptions;
+        Tariff tariff = PricingEngine.getTariff();
+        long fromEpochDay = from.toEpochDay();
+        return quoteCache.get(tariff, fromEpochDay, getDays(from, to), mileage, licenseYears,
+                (days, loadedMileage, loadedLicenseYears) ->
+                        priceOptions(tariff, fromEpochDay, days, loadedMileage, loadedLicenseYears));
+    }
+
+    /**
+     * Builds a {@link VehicleGapIndex} from one pass over the reservations overlapping the window, then walks the
+     * vehicles of the type lazily and reads their gaps from the index.
+     */
+    @Override
+    public Stream<AvailableSlot> findAvailability(VehicleType type, LocalDate windowFrom, LocalDate windowTo,
+                                                  int stayDays) {
+        validateSearch(type, windowFrom, windowTo, stayDays);
+        Set<Vehicle> vehicles = vehicleRepository.getVehiclesByType(type);
+        if (vehicles == null || vehicles.isEmpty() || getDays(windowFrom, windowTo) < stayDays) {
+            return Stream.empty();
+        }
+        VehicleGapIndex gapIndex = VehicleGapIndex.build(type, windowFrom, windowTo,
+                reservationRepository.findOverlapping(windowFrom, windowTo));
+        return vehicles.stream().flatMap(vehicle -> gapIndex.slots(vehicle, stayDays).stream());
     }
 
-    private static LinkedHashMap<VehicleType, Double> sortBasedOnPrice(Map<VehicleType, Double> options) {
-        return options.entrySet()
-                .stream()
-                .sorted(Map.Entry.comparingByValue())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (oldValue, newValue) -> oldValue,
-                        LinkedHashMap::new
-                ));
+    /**
+     * Books the rows one by one in input order. The vehicle of a vehicle id and the fleet of a type are resolved once
+     * per batch, on the first row asking for them.
+     */
+    @Override
+    public List<ReservationOutcome> reserveBatch(List<ReservationRequest> requests) {
+        ReservationOutcome[] outcomes = new ReservationOutcome[requests.size()];
+        Map<UUID, Vehicle> requestedVehicles = new HashMap<>();
+        Map<VehicleType, TypeFleet> fleetsByType = new EnumMap<>(VehicleType.class);
+        for (int row = 0; row < requests.size(); row++) {
+            ReservationRequest request = requests.get(row);
+            try {
+                validateInputs(request.getFromDate(), request.getToDate(), request.getMileage(), request.getLicenseYears());
+                outcomes[row] = request.isForVehicle()
+                        ? reserveBatchRowForVehicle(row, request, requestedVehicles)
+                        : reserveBatchRowForType(row, request, fleetsByType);
+            } catch (RuntimeException e) {
+                outcomes[row] = ReservationOutcome.failed(row, e);
+            }
+        }
+        int reserved = 0;
+        for (ReservationOutcome outcome : outcomes) {
+            if (outcome.isReserved()) {
+                reserved(outcome.getReservationDetails());
+                reserved++;
+            }
+        }
+        log.debug("Reserved {} of {} batch rows", reserved, outcomes.length);
+        return Arrays.asList(outcomes);
+    }
+
+    private ReservationOutcome reserveBatchRowForVehicle(int row, ReservationRequest request,
+                                                         Map<UUID, Vehicle> requestedVehicles) {
+        // an unknown id is not cached, every row asking for it fails with the lookup
+        Vehicle vehicle = requestedVehicles.computeIfAbsent(request.getVehicleId(),
+                vehicleRepository::getVehicleByVehicleId);
+        ReservationDetails details = buildReservationDetails(vehicle, request.getFromDate(), request.getToDate(),
+                request.getMileage(), request.getLicenseYears());
+        return reservationRepository.tryReserve(details)
+                ? ReservationOutcome.reserved(row, details)
+                : ReservationOutcome.failed(row, new ReservationNotPossibleException(vehicle.getId(),
+                request.getFromDate(), request.getToDate()));
+    }
+
+    private ReservationOutcome reserveBatchRowForType(int row, ReservationRequest request,
+                                                      Map<VehicleType, TypeFleet> fleetsByType) {
+        VehicleType type = request.getType();
+        TypeFleet fleet = fleetsByType.computeIfAbsent(type,
+                key -> new TypeFleet(vehicleRepository.getVehiclesByType(key)));
+        return selectionStrategy
+                .findCandidates(type, fleet.vehicles, request.getFromDate(), request.getToDate(), reservationRepository)
+                .map(vehicleId -> buildReservationDetails(fleet.vehiclesById.get(vehicleId), request.getFromDate(),
+                        request.getToDate(), request.getMileage(), request.getLicenseYears()))
+                .filter(reservationRepository::tryReserve)
+                .findFirst()
+                .map(details -> ReservationOutcome.reserved(row, details))
+                .orElseGet(() -> ReservationOutcome.failed(row,
+                        new ReservationNotPossibleException(type, request.getFromDate(), request.getToDate())));
     }
 
-    private static Map<VehicleType, Double> getVehicleTypePriceOptions(LocalDate from, LocalDate to, int mileage, int licenseYears) {
-        return Arrays.stream(VehicleType.values())
-                .collect(Collectors.toMap(type -> type, type ->
-                        type.calculatePrice(getDays(from, to), mileage, licenseYears)));
+    private void reserved(ReservationDetails reservationDetails) {
+        selectionStrategy.reserved(reservationDetails);
+        auditTrail.reserved(reservationDetails);
+    }
+
+    private static Map<VehicleType, Double> priceOptions(Tariff tariff, long fromEpochDay, long days, int mileage,
+                                                         int licenseYears) {
+        long[] prices = new long[PriceQuotes.TYPE_COUNT];
+        int[] ranking = new int[PriceQuotes.TYPE_COUNT];
+        PriceQuotes.quote(tariff, fromEpochDay, days, mileage, licenseYears, prices);
+        PriceQuotes.rankByPrice(prices, ranking);
+        Map<VehicleType, Double> sortedOptions = Collections.unmodifiableMap(PriceQuotes.toOptions(prices, ranking));
+        log.debug("Vehicle options priced by type in sorted order:{}", sortedOptions);
+        return sortedOptions;
     }
 
     private static long getDays(LocalDate from, LocalDate to) {
         return ChronoUnit.DAYS.between(from, to);
     }
+
+    /**
+     * The fleet of a type as of the first batch row asking for it; the candidates are ids of the fleet, resolved here
+     * instead of once per candidate in the repository.
+     */
+    private static class TypeFleet {
+        private final Set<Vehicle> vehicles;
+        private final Map<UUID, Vehicle> vehiclesById;
+
+        private TypeFleet(Set<Vehicle> vehicles) {
+            this.vehicles = vehicles == null ? Set.of() : vehicles;
+            this.vehiclesById = this.vehicles.stream().collect(Collectors.toMap(Vehicle::getId, Function.identity()));
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package org.example.service;
+
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Starts every search one vehicle after where the previous search of the same type started, so bookings are spread
+ * over the whole fleet instead of piling up on the vehicles which come first in hash order. The ring only orders the
+ * vehicles, which of them are free is asked from {@link ReservationRepository#findAvailableVehicles} in growing chunks
+ * along the ring, so an indexed repository answers for many vehicles at once and a search stops at the first chunk
+ * with a free one.
+ */
+public class RoundRobinSelectionStrategy implements VehicleSelectionStrategy {
+
+    private final Map<VehicleType, Ring> rings = new ConcurrentHashMap<>();
+
+    @Override
+    public Stream<UUID> findCandidates(VehicleType type, Set<Vehicle> vehicles, LocalDate fromDate, LocalDate toDate,
+                                       ReservationRepository reservationRepository) {
+        Ring ring = rings.get(type);
+        if (ring == null || !ring.fleet.isSnapshotOf(vehicles)) {
+            ring = new Ring(FleetSnapshot.of(vehicles));
+            rings.put(type, ring);
+        }
+        FleetSnapshot fleet = ring.fleet;
+        if (fleet.size() == 0) {
+            return Stream.empty();
+        }
+        int start = Math.floorMod(ring.cursor.getAndIncrement(), fleet.size());
+        return fleet.findAvailable(IntStream.range(0, fleet.size())
+                .mapToObj(offset -> fleet.get((start + offset) % fleet.size())), type, fromDate, toDate,
+                reservationRepository);
+    }
+
+    private static class Ring {
+        private final FleetSnapshot fleet;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        private Ring(FleetSnapshot fleet) {
+            this.fleet = fleet;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.service;
+
+import org.example.domain.AvailableSlot;
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Free days of the vehicles of one type within a search window, built in one pass over the reservations overlapping
+ * the window. Every reserved vehicle keeps its reservations clipped to the window as day offsets from the window
+ * start, packed as {@code from << 32 | to} so sorting the longs orders them by their 'from' day; the gaps between them
+ * are its free days. Vehicles without an entry are free for the whole window.
+ */
+class VehicleGapIndex {
+
+    private static final ReservedRanges NO_RESERVATIONS = new ReservedRanges();
+
+    private final LocalDate windowFromDate;
+    private final int lastWindowOffset;
+    private final Map<UUID, ReservedRanges> reservedRangesByVehicleId;
+
+    private VehicleGapIndex(LocalDate windowFromDate, int lastWindowOffset,
+                            Map<UUID, ReservedRanges> reservedRangesByVehicleId) {
+        this.windowFromDate = windowFromDate;
+        this.lastWindowOffset = lastWindowOffset;
+        this.reservedRangesByVehicleId = reservedRangesByVehicleId;
+    }
+
+    /**
+     * @param overlapping reservations sharing a day with the window; reservations of other types are skipped
+     */
+    static VehicleGapIndex build(VehicleType type, LocalDate windowFromDate, LocalDate windowToDate,
+                                 Stream<ReservationDetails> overlapping) {
+        long windowFromDay = windowFromDate.toEpochDay();
+        int lastWindowOffset = Math.toIntExact(windowToDate.toEpochDay() - windowFromDay);
+        Map<UUID, ReservedRanges> rangesByVehicleId = new HashMap<>();
+        overlapping.filter(reservationDetails -> reservationDetails.getVehicle().getType() == type)
+                .forEach(reservationDetails -> {
+                    long from = Math.max(reservationDetails.getFromDate().toEpochDay() - windowFromDay, 0);
+                    long to = Math.min(reservationDetails.getToDate().toEpochDay() - windowFromDay, lastWindowOffset);
+                    rangesByVehicleId.computeIfAbsent(reservationDetails.getVehicle().getId(),
+                            vehicleId -> new ReservedRanges()).add(from << 32 | to);
+                });
+        rangesByVehicleId.values().forEach(ReservedRanges::sort);
+        return new VehicleGapIndex(windowFromDate, lastWindowOffset, rangesByVehicleId);
+    }
+
+    /**
+     * @param stayDays the stay starting on a day {@code d} occupies the days {@code d} to {@code d + stayDays}
+     * @return the slots of the vehicle in which such a stay fits into the window, ascending
+     */
+    List<AvailableSlot> slots(Vehicle vehicle, int stayDays) {
+        ReservedRanges ranges = reservedRangesByVehicleId.getOrDefault(vehicle.getId(), NO_RESERVATIONS);
+        List<AvailableSlot> slots = new ArrayList<>(ranges.size + 1);
+        long firstFreeOffset = 0;
+        for (int i = 0; i < ranges.size; i++) {
+            long range = ranges.packed[i];
+            long from = range >>> 32;
+            addSlot(slots, vehicle, firstFreeOffset, from - 1, stayDays);
+            // reservations of a vehicle do not overlap, unless a concurrent write was seen half way
+            firstFreeOffset = Math.max(firstFreeOffset, (range & 0xFFFF_FFFFL) + 1);
+        }
+        addSlot(slots, vehicle, firstFreeOffset, lastWindowOffset, stayDays);
+        return slots;
+    }
+
+    private void addSlot(List<AvailableSlot> slots, Vehicle vehicle, long firstFreeOffset, long lastFreeOffset,
+                         int stayDays) {
+        if (lastFreeOffset - firstFreeOffset >= stayDays) {
+            slots.add(new AvailableSlot(vehicle, windowFromDate.plusDays(firstFreeOffset),
+                    windowFromDate.plusDays(lastFreeOffset - stayDays)));
+        }
+    }
+
+    private static class ReservedRanges {
+        private long[] packed = new long[2];
+        private int size;
+
+        void add(long range) {
+            if (size == packed.length) {
+                packed = Arrays.copyOf(packed, size * 2);
+            }
+            packed[size++] = range;
+        }
+
+        void sort() {
+            Arrays.sort(packed, 0, size);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.ReservationRepository;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Decides in which order a reservation by type tries the vehicles of that type. A strategy only orders the
+ * candidates: every reservation is still made through {@link ReservationRepository#tryReserve}, so an index which
+ * lags behind the repository costs extra probes but never a double booking. The service reports every reservation
+ * it makes or releases through {@link #reserved} and {@link #released}.
+ */
+public interface VehicleSelectionStrategy {
+
+    /**
+     * Tries the vehicles in the order the repository yields them, the behaviour without a strategy.
+     */
+    VehicleSelectionStrategy FIRST_AVAILABLE = (type, vehicles, fromDate, toDate, reservationRepository) ->
+            reservationRepository.findAvailableVehicles(type, vehicles, fromDate, toDate);
+
+    /**
+     * @param vehicles current fleet of the given type
+     * @return lazily evaluated ids of the given vehicles which are not reserved on the given dates, best first
+     */
+    Stream<UUID> findCandidates(VehicleType type, Set<Vehicle> vehicles, LocalDate fromDate, LocalDate toDate,
+                                ReservationRepository reservationRepository);
+
+    default void reserved(ReservationDetails reservationDetails) {
+    }
+
+    default void released(ReservationDetails reservationDetails) {
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.analytics;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidDateRangeException;
+import org.example.respository.AnalyticsReservationRepository;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetAnalyticsTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 5, 1);
+
+    @Test
+    void shouldAggregateRevenueOccupancyAndBookingLengths() {
+        ReservationRepository repository = new InMemoryReservationRepositoryImpl();
+        Vehicle sedan = new Vehicle(VehicleType.SEDAN);
+        Vehicle otherSedan = new Vehicle(VehicleType.SEDAN);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        repository.save(reservation(sedan, 1000, FIRST_DAY.minusDays(3), FIRST_DAY.plusDays(1)));
+        repository.save(reservation(otherSedan, 2500, FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(2)));
+        repository.save(reservation(van, 4000, FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(2 + 90)));
+
+        FleetReport report = FleetAnalytics.aggregate(repository, FIRST_DAY, FIRST_DAY.plusDays(3));
+
+        assertEquals(3500, report.getRevenueCents(VehicleType.SEDAN));
+        assertEquals(2, report.getReservations(VehicleType.SEDAN));
+        assertEquals(4000, report.getRevenueCents(VehicleType.VAN));
+        assertEquals(0, report.getReservations(VehicleType.SUV));
+        assertEquals(1, report.getBookings(1));
+        assertEquals(1, report.getBookings(4));
+        assertEquals(1, report.getBookings(FleetReport.LONGEST_TRACKED_BOOKING_DAYS));
+        assertEquals(1, report.getBookings(90));
+        assertEquals(List.of(1L, 2L, 1L, 0L), occupancy(report, VehicleType.SEDAN));
+        assertEquals(List.of(0L, 0L, 1L, 1L), occupancy(report, VehicleType.VAN));
+        assertThrows(IllegalArgumentException.class, () -> report.getOccupancy(VehicleType.VAN, FIRST_DAY.plusDays(4)));
+        assertThrows(InvalidDateRangeException.class,
+                () -> FleetAnalytics.aggregate(repository, FIRST_DAY, FIRST_DAY.minusDays(1)));
+    }
+
+    @Test
+    void shouldKeepCountersEqualToFullAggregation() {
+        InMemoryReservationRepositoryImpl store = new InMemoryReservationRepositoryImpl();
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            vehicles.add(new Vehicle(VehicleType.values()[i % VehicleType.values().length]));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            store.tryReserve(randomReservation(vehicles, random));
+        }
+        AnalyticsReservationRepository repository = new AnalyticsReservationRepository(store);
+        List<UUID> ids = new ArrayList<>(store.findAll().map(ReservationDetails::getId).toList());
+        for (int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(3);
+            if (operation == 0 && !ids.isEmpty()) {
+                repository.remove(ids.remove(random.nextInt(ids.size())));
+            } else if (operation == 1 && !ids.isEmpty()) {
+                UUID id = ids.get(random.nextInt(ids.size()));
+                ReservationDetails current = repository.findById(id).orElseThrow();
+                LocalDate from = FIRST_DAY.plusDays(random.nextInt(60));
+                repository.replace(id, ReservationDetails.restore(id, current.getVehicle(), random.nextInt(10_000),
+                        from, from.plusDays(random.nextInt(10))));
+            } else {
+                ReservationDetails details = randomReservation(vehicles, random);
+                if (repository.tryReserve(details)) {
+                    ids.add(details.getId());
+                }
+            }
+        }
+
+        FleetReport report = FleetAnalytics.aggregate(repository, FIRST_DAY, FIRST_DAY.plusDays(70));
+        FleetCounters counters = repository.getCounters();
+
+        for (VehicleType type : VehicleType.values()) {
+            assertEquals(report.getRevenueCents(type), counters.getRevenueCents(type), type.toString());
+            assertEquals(report.getReservations(type), counters.getReservations(type), type.toString());
+            for (LocalDate day = FIRST_DAY; !day.isAfter(report.getToDate()); day = day.plusDays(1)) {
+                assertEquals(report.getOccupancy(type, day), counters.getOccupancy(type, day), type + " on " + day);
+            }
+        }
+        for (int days = 0; days <= FleetReport.LONGEST_TRACKED_BOOKING_DAYS; days++) {
+            assertEquals(report.getBookings(days), counters.getBookings(days));
+        }
+
+        repository.deleteAll();
+
+        assertEquals(0, counters.getReservations(VehicleType.SEDAN));
+        assertEquals(0, counters.getOccupancy(VehicleType.SEDAN, FIRST_DAY.plusDays(10)));
+    }
+
+    private static List<Long> occupancy(FleetReport report, VehicleType type) {
+        return FIRST_DAY.datesUntil(report.getToDate().plusDays(1))
+                .map(day -> report.getOccupancy(type, day))
+                .toList();
+    }
+
+    private static ReservationDetails randomReservation(List<Vehicle> vehicles, Random random) {
+        LocalDate from = FIRST_DAY.plusDays(random.nextInt(60));
+        return reservation(vehicles.get(random.nextInt(vehicles.size())), random.nextInt(10_000),
+                from, from.plusDays(random.nextInt(10)));
+    }
+
+    private static ReservationDetails reservation(Vehicle vehicle, long priceCents, LocalDate from, LocalDate to) {
+        return ReservationDetails.restore(UUID.randomUUID(), vehicle, priceCents, from, to);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.audit;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.service.ReservationService;
+import org.example.service.ReservationServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferAuditTrailTest {
+
+    @Test
+    void shouldDrainBookingEventsInOrder() {
+        List<AuditEvent> events = new CopyOnWriteArrayList<>();
+        InMemoryVehicleRepository vehicleRepository = new InMemoryVehicleRepository();
+        Vehicle vehicle = new Vehicle(VehicleType.SUV);
+        vehicleRepository.save(vehicle);
+        LocalDate from = LocalDate.now().plusDays(1);
+
+        ReservationDetails reserved;
+        ReservationDetails modified;
+        try (RingBufferAuditTrail auditTrail = new RingBufferAuditTrail(collectingSink(events),
+                AuditOptions.AuditOptionsBuilder.newInstance().capacity(8).humanReadableSampleRate(2).build())) {
+            ReservationService service = new ReservationServiceImpl(new InMemoryReservationRepositoryImpl(),
+                    vehicleRepository, auditTrail);
+            reserved = service.reserveCarByVehicleId(vehicle.getId(), from, from.plusDays(2), 100, 5);
+            modified = service.modifyReservation(reserved.getId(), from, from.plusDays(4), 100, 5);
+            service.cancelReservation(modified.getId());
+        }
+
+        assertEquals(3, events.size());
+        assertEquals(List.of(AuditEventType.RESERVED, AuditEventType.MODIFIED, AuditEventType.CANCELLED),
+                events.stream().map(AuditEvent::getType).toList());
+        assertEquals(List.of(0L, 1L, 2L), events.stream().map(AuditEvent::getSequence).toList());
+
+        AuditEvent first = events.get(0);
+        assertEquals(reserved.getId(), first.getReservationId());
+        assertEquals(vehicle.getId(), first.getVehicleId());
+        assertEquals(VehicleType.SUV, first.getVehicleType());
+        assertEquals(from, first.getFromDate());
+        assertEquals(from.plusDays(2), first.getToDate());
+        assertEquals(reserved.getPriceCents(), first.getPriceCents());
+        assertNull(first.getPreviousReservationId());
+
+        AuditEvent second = events.get(1);
+        assertEquals(modified.getId(), second.getReservationId());
+        assertEquals(reserved.getId(), second.getPreviousReservationId());
+        assertEquals(from.plusDays(4), second.getToDate());
+    }
+
+    @Test
+    void shouldDropEventsWhileRingIsFull() throws InterruptedException {
+        List<AuditEvent> events = new CopyOnWriteArrayList<>();
+        CountDownLatch sinkEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuditSink blockingSink = batch -> {
+            sinkEntered.countDown();
+            await(release);
+            collectingSink(events).write(batch);
+        };
+        ReservationDetails details = ReservationDetails.restore(UUID.randomUUID(),
+                new Vehicle(VehicleType.VAN), 1000, LocalDate.now(), LocalDate.now().plusDays(1));
+
+        RingBufferAuditTrail auditTrail = new RingBufferAuditTrail(blockingSink,
+                AuditOptions.AuditOptionsBuilder.newInstance().capacity(4).build());
+        auditTrail.reserved(details);
+        assertTrue(sinkEntered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            auditTrail.reserved(details);
+        }
+        release.countDown();
+        auditTrail.close();
+
+        assertEquals(7, auditTrail.getDroppedEvents());
+        assertEquals(4, auditTrail.getDrainedEvents());
+        assertEquals(4, events.size());
+    }
+
+    private static AuditSink collectingSink(List<AuditEvent> events) {
+        return batch -> {
+            for (int i = 0; i < batch.remaining() / AuditEvent.SIZE; i++) {
+                events.add(AuditEvent.read(batch, i));
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
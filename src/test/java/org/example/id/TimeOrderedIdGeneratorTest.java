@@ -0,0 +1,83 @@
+package org.example.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdGeneratorTest {
+
+    @Test
+    void shouldIncreaseWithinBurstsAndWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(1_900_000_000_000L);
+        IdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.next());
+        }
+        clock.addAndGet(-5);
+        ids.add(generator.next());
+        clock.addAndGet(1_000);
+        ids.add(generator.next());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, "id " + i);
+        }
+        assertEquals(Instant.ofEpochMilli(1_900_000_000_000L), TimeOrderedIdGenerator.timestampOf(ids.get(0)));
+        assertEquals(Instant.ofEpochMilli(1_900_000_001_000L - 5),
+                TimeOrderedIdGenerator.timestampOf(ids.get(ids.size() - 1)));
+    }
+
+    @Test
+    void shouldGenerateVersion7IdsBetweenTheBoundsOfTheirMillisecond() {
+        Instant now = Instant.ofEpochMilli(1_900_000_000_123L);
+        UUID id = new TimeOrderedIdGenerator(now::toEpochMilli).next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(TimeOrderedIdGenerator.isTimeOrdered(id));
+        assertFalse(TimeOrderedIdGenerator.isTimeOrdered(UUID.randomUUID()));
+        assertTrue(TimeOrderedIdGenerator.lowerBound(now).compareTo(id) < 0);
+        assertTrue(TimeOrderedIdGenerator.upperBound(now).compareTo(id) > 0);
+        assertTrue(TimeOrderedIdGenerator.upperBound(now.minusMillis(1)).compareTo(id) < 0);
+        assertTrue(TimeOrderedIdGenerator.lowerBound(now.plusMillis(1)).compareTo(id) > 0);
+        assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.timestampOf(UUID.randomUUID()));
+    }
+
+    @Test
+    void shouldNotRepeatIdsAcrossThreadsWithinOneMillisecond() throws Exception {
+        IdGenerator generator = new TimeOrderedIdGenerator(() -> 1_900_000_000_000L);
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    Set<UUID> own = new HashSet<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        own.add(generator.next());
+                    }
+                    ids.addAll(own);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(80_000, ids.size());
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.pricing;
+
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkQuotesTest {
+
+    private static final int ROWS = 10_000;
+
+    @AfterEach
+    void resetRules() {
+        PricingEngine.reset();
+    }
+
+    @Test
+    void shouldMatchScalarPricesOfDefaultRules() {
+        assertMatchesScalarPrices();
+    }
+
+    @Test
+    void shouldMatchScalarPricesWithSeveralTiersAndFees() {
+        Properties properties = new Properties();
+        properties.setProperty("SEDAN.dailyRate", "20");
+        properties.setProperty("SEDAN.dayTiers", "7:18,14:16.5,28:14");
+        properties.setProperty("SEDAN.newDriverSurcharge", "2:0.25");
+        properties.setProperty("VAN.dailyRate", "22.5");
+        properties.setProperty("VAN.cleaningFee", "0.1");
+        properties.setProperty("VAN.mileageFee", "0.3");
+        properties.setProperty("SUV.dailyRate", "15");
+        properties.setProperty("SUV.mileageFee", "0.5");
+        properties.setProperty("SUV.weekendMultiplier", "1.2");
+        properties.setProperty("PICKUP_TRUCK.dailyRate", "30");
+        properties.setProperty("PICKUP_TRUCK.newDriverSurcharge", "3:0.1");
+        PricingEngine.reload(PricingRules.parse(properties));
+
+        assertMatchesScalarPrices();
+    }
+
+    @Test
+    void shouldRejectColumnsOfDifferentLength() {
+        assertThrows(IllegalArgumentException.class, () -> BulkQuotes.quote(PricingEngine.getTariff(),
+                VehicleType.SUV, new long[2], new int[1], new int[2], new long[2]));
+    }
+
+    private static void assertMatchesScalarPrices() {
+        Random random = new Random(42);
+        long[] days = new long[ROWS];
+        int[] mileage = new int[ROWS];
+        int[] licenseYears = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            days[i] = random.nextInt(60);
+            mileage[i] = random.nextInt(5000);
+            licenseYears[i] = random.nextInt(10);
+        }
+        long[][] prices = new long[VehicleType.values().length][ROWS];
+
+        BulkQuotes.quote(days, mileage, licenseYears, prices);
+
+        for (VehicleType type : VehicleType.values()) {
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(type.calculatePriceCents(days[i], mileage[i], licenseYears[i]), prices[type.ordinal()][i],
+                        type + " row " + i);
+            }
+        }
+    }
+}
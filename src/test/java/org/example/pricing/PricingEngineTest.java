@@ -0,0 +1,143 @@
+package org.example.pricing;
+
+import org.example.domain.VehicleType;
+import org.example.service.ReservationService;
+import org.example.service.ReservationServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingEngineTest {
+
+    @AfterEach
+    void resetRules() {
+        PricingEngine.reset();
+    }
+
+    @Test
+    void defaultRulesShouldPriceLikeTheFormerHardcodedTariff() {
+        for (long days = 0; days <= 40; days++) {
+            for (int mileage : new int[]{0, 1, 99, 1000}) {
+                for (int licenseYears = 0; licenseYears <= 5; licenseYears++) {
+                    assertEquals(days * (days < 10 ? 2000 : 1500),
+                            VehicleType.SEDAN.calculatePriceCents(days, mileage, licenseYears));
+                    assertEquals(days * 2200 + days * 220, VehicleType.VAN.calculatePriceCents(days, mileage, licenseYears));
+                    assertEquals(days * 1500 + mileage * 50L,
+                            VehicleType.SUV.calculatePriceCents(days, mileage, licenseYears));
+                    assertEquals(days * 3000 + (licenseYears < 3 ? days * 300 : 0),
+                            VehicleType.PICKUP_TRUCK.calculatePriceCents(days, mileage, licenseYears));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundPercentageFeesHalfUpToWholeCents() {
+        Properties properties = defaultRules();
+        properties.setProperty("VAN.dailyRate", "0.05");
+        properties.setProperty("PICKUP_TRUCK.newDriverSurcharge", "3:0.125");
+        PricingEngine.reload(PricingRules.parse(properties));
+
+        // 5 cents plus a 0.5 cent cleaning fee, 15 cents plus 1.5 cents
+        assertEquals(6, VehicleType.VAN.calculatePriceCents(1, 1, 5));
+        assertEquals(17, VehicleType.VAN.calculatePriceCents(3, 1, 5));
+        // 12.5% of 30.00 is 3.75 exactly
+        assertEquals(3375, VehicleType.PICKUP_TRUCK.calculatePriceCents(1, 1, 1));
+
+        properties.setProperty("SUV.mileageFee", "0.005");
+        assertThrows(IllegalArgumentException.class, () -> PricingRules.parse(properties));
+    }
+
+    @Test
+    void shouldApplyDateDependentModifiersPerDay() {
+        Properties properties = defaultRules();
+        properties.setProperty("SEDAN.weekendMultiplier", "1.5");
+        properties.setProperty("SEDAN.season.winter", "12-20..01-05:2");
+        Tariff tariff = PricingEngine.reload(PricingRules.parse(properties));
+        LocalDate friday = LocalDate.of(2030, 6, 7).with(TemporalAdjusters.nextOrSame(DayOfWeek.FRIDAY));
+
+        assertTrue(tariff.isDateDependent());
+        assertEquals(2000 + 3000 + 3000, VehicleType.SEDAN.calculatePriceCents(friday, 3, 0, 5));
+        assertEquals(3 * 2000, VehicleType.SEDAN.calculatePriceCents(3, 0, 5));
+        // Tuesday and Wednesday in the winter season, then a winter Sunday and a Monday after it
+        assertEquals(4000 + 4000, VehicleType.SEDAN.calculatePriceCents(LocalDate.of(2030, 12, 31), 2, 0, 5));
+        assertEquals(6000 + 2000, VehicleType.SEDAN.calculatePriceCents(LocalDate.of(2031, 1, 5), 2, 0, 5));
+        assertEquals(VehicleType.VAN.calculatePriceCents(3, 0, 5), VehicleType.VAN.calculatePriceCents(friday, 3, 0, 5));
+    }
+
+    @Test
+    void shouldPriceAllTypesAtOnceLikeTypeByType() {
+        Properties properties = defaultRules();
+        properties.setProperty("SEDAN.dayTiers", "3:18,10:15,90:12");
+        properties.setProperty("VAN.newDriverSurcharge", "2:0.125");
+        properties.setProperty("SUV.weekendMultiplier", "1.5");
+        Tariff tariff = PricingEngine.reload(PricingRules.parse(properties));
+        long[] prices = new long[VehicleType.values().length];
+
+        for (long days = 0; days <= 120; days++) {
+            for (int licenseYears = 0; licenseYears <= 4; licenseYears++) {
+                tariff.priceAll(Tariff.UNDATED, days, 77, licenseYears, prices);
+                for (VehicleType type : VehicleType.values()) {
+                    assertEquals(tariff.price(type, Tariff.UNDATED, days, 77, licenseYears), prices[type.ordinal()]);
+                }
+            }
+        }
+        long saturday = LocalDate.of(2030, 6, 1).toEpochDay();
+        tariff.priceAll(saturday, 2, 0, 1, prices);
+        assertEquals(tariff.price(VehicleType.SUV, saturday, 2, 0, 1), prices[VehicleType.SUV.ordinal()]);
+        assertNotEquals(tariff.price(VehicleType.SUV, Tariff.UNDATED, 2, 0, 1), prices[VehicleType.SUV.ordinal()]);
+    }
+
+    @Test
+    void shouldKeepCurrentTariffWhenRulesAreInvalid() {
+        Tariff current = PricingEngine.getTariff();
+        Properties properties = defaultRules();
+        properties.setProperty("SUV.mileageFee", "-1");
+
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.reload(PricingRules.parse(properties)));
+        properties.remove("SUV.mileageFee");
+        properties.remove("VAN.dailyRate");
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.reload(PricingRules.parse(properties)));
+        assertSame(current, PricingEngine.getTariff());
+    }
+
+    @Test
+    void shouldQuoteWithReloadedRules(@TempDir Path directory) throws IOException {
+        ReservationService service = new ReservationServiceImpl(null, null);
+        LocalDate from = LocalDate.now().plusDays(1);
+        assertEquals(60.0, service.getOptions(from, from.plusDays(3), 100, 5).get(VehicleType.SEDAN));
+
+        Path rules = directory.resolve("pricing-rules.properties");
+        Files.writeString(rules, """
+                SEDAN.dailyRate=25
+                VAN.dailyRate=22
+                SUV.dailyRate=15
+                PICKUP_TRUCK.dailyRate=30
+                """);
+        PricingEngine.reload(rules);
+
+        assertEquals(75.0, service.getOptions(from, from.plusDays(3), 100, 5).get(VehicleType.SEDAN));
+    }
+
+    private static Properties defaultRules() {
+        Properties properties = new Properties();
+        try (InputStream input = PricingRules.class.getResourceAsStream(PricingRules.DEFAULT_RESOURCE)) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactReservationRepositoryImplTest {
+
+    private ReservationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CompactReservationRepositoryImpl();
+    }
+
+    @Test
+    void shouldMaterializeEqualReservations() {
+        Vehicle suv = new Vehicle(VehicleType.SUV);
+        ReservationDetails details = reservation(suv, LocalDate.now().plusDays(2), LocalDate.now().plusDays(4));
+        repository.save(details);
+
+        assertEquals(Optional.of(details), repository.findById(details.getId()));
+        assertEquals(details, repository.remove(details.getId()));
+        assertEquals(Optional.empty(), repository.findById(details.getId()));
+        assertThrows(InvalidReservationIdException.class, () -> repository.remove(details.getId()));
+    }
+
+    @Test
+    void shouldAgreeWithLinearScanRepositoryAcrossRemovals() {
+        ReservationRepository reference = new InMemoryReservationRepositoryImpl();
+        List<Vehicle> vehicles = List.of(new Vehicle(VehicleType.SEDAN), new Vehicle(VehicleType.VAN),
+                new Vehicle(VehicleType.SUV));
+        List<UUID> reservationIds = new ArrayList<>();
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 20_000; i++) {
+            if (!reservationIds.isEmpty() && random.nextInt(3) == 0) {
+                UUID id = reservationIds.remove(random.nextInt(reservationIds.size()));
+                assertEquals(reference.remove(id), repository.remove(id));
+                continue;
+            }
+            Vehicle vehicle = vehicles.get(random.nextInt(vehicles.size()));
+            LocalDate from = today.plusDays(random.nextInt(365));
+            LocalDate to = from.plusDays(random.nextInt(6));
+            boolean expected = reference.isAvailableOnDates(vehicle.getId(), from, to);
+            assertEquals(expected, repository.isAvailableOnDates(vehicle.getId(), from, to));
+            ReservationDetails details = reservation(vehicle, from, to);
+            assertEquals(expected, repository.tryReserve(details));
+            if (expected) {
+                reference.save(details);
+                reservationIds.add(details.getId());
+            }
+        }
+        reservationIds.forEach(id -> assertEquals(reference.findById(id), repository.findById(id)));
+    }
+
+    @Test
+    void shouldExportEveryLiveReservation(@TempDir Path directory) throws IOException {
+        ReservationRepository scanned = new IntervalTreeReservationRepositoryImpl();
+        Set<ReservationDetails> expected = new HashSet<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 30_000; i++) {
+            ReservationDetails details = reservation(new Vehicle(VehicleType.values()[i % 4]), today.plusDays(i % 400),
+                    today.plusDays(i % 400 + i % 9));
+            repository.save(details);
+            scanned.save(details);
+            if (i % 5 == 0) {
+                repository.remove(details.getId());
+                scanned.remove(details.getId());
+            } else {
+                expected.add(details);
+            }
+        }
+
+        Path binary = directory.resolve("export.bin");
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertEquals(expected.size(), repository.exportTo(channel, ExportFormat.BINARY));
+        }
+        ByteBuffer exported = ByteBuffer.wrap(Files.readAllBytes(binary));
+        assertEquals(ReservationExportWriter.MAGIC, exported.getInt(0));
+        Set<ReservationDetails> read = new HashSet<>();
+        for (int offset = 2 * Integer.BYTES; offset < exported.capacity(); offset += ReservationRecordCodec.RECORD_SIZE) {
+            read.add(ReservationRecordCodec.read(exported, offset));
+        }
+        assertEquals(expected, read);
+
+        Set<String> expectedLines = expected.stream()
+                .map(details -> String.format(Locale.ROOT, "%s,%s,%s,%s,%s,%.2f", details.getId(),
+                        details.getVehicle().getId(), details.getVehicle().getType(), details.getFromDate(),
+                        details.getToDate(), details.getPrice()))
+                .collect(Collectors.toSet());
+        assertEquals(expectedLines, csvLines(repository, directory.resolve("compact.csv")));
+        assertEquals(expectedLines, csvLines(scanned, directory.resolve("scanned.csv")));
+    }
+
+    @Test
+    void shouldExportYearsLikeLocalDate() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReservationExportWriter writer = new ReservationExportWriter(Channels.newChannel(out), ExportFormat.CSV);
+        List<LocalDate> dates = List.of(LocalDate.of(2030, 5, 1), LocalDate.of(7, 1, 31), LocalDate.of(-3, 12, 31),
+                LocalDate.of(-12_345, 2, 28), LocalDate.of(10_000, 1, 1), LocalDate.of(5_000_000, 6, 30));
+        for (LocalDate date : dates) {
+            writer.write(1, 2, 3, 4, 0, (int) date.toEpochDay(), (int) date.toEpochDay(), 0);
+        }
+        writer.finish();
+
+        List<String> lines = out.toString(StandardCharsets.US_ASCII).lines().skip(1).toList();
+        for (int row = 0; row < dates.size(); row++) {
+            assertEquals(dates.get(row).toString(), lines.get(row).split(",")[3]);
+        }
+    }
+
+    private static Set<String> csvLines(ReservationRepository repository, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            repository.exportTo(channel, ExportFormat.CSV);
+        }
+        List<String> lines = Files.readAllLines(path);
+        assertEquals("id,vehicleId,vehicleType,fromDate,toDate,price", lines.get(0));
+        return new HashSet<>(lines.subList(1, lines.size()));
+    }
+}
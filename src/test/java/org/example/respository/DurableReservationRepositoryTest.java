@@ -0,0 +1,184 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableReservationRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void shouldRecoverConcurrentWritesFromLog(FsyncPolicy fsyncPolicy) throws Exception {
+        DurabilityOptions options = options(fsyncPolicy);
+        List<Vehicle> vehicles = IntStream.range(0, 16).mapToObj(i -> new Vehicle(VehicleType.SEDAN)).toList();
+        LocalDate today = LocalDate.now();
+        Set<ReservationDetails> expected;
+        try (DurableReservationRepository repository = open(options)) {
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            for (Vehicle vehicle : vehicles) {
+                executor.submit(() -> {
+                    for (int day = 0; day < 20; day++) {
+                        ReservationDetails details = reservation(vehicle, today.plusDays(day), today.plusDays(day));
+                        repository.save(details);
+                        if (day % 4 == 0) {
+                            repository.remove(details.getId());
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            expected = repository.findAll().collect(Collectors.toSet());
+        }
+
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(16 * 15, expected.size());
+            assertEquals(expected, repository.findAll().collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void shouldRecoverReplacedReservationFromLog() throws Exception {
+        DurabilityOptions options = options(FsyncPolicy.PER_OPERATION);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        LocalDate today = LocalDate.now();
+        ReservationDetails original = reservation(van, today.plusDays(1), today.plusDays(3));
+        ReservationDetails replacement = reservation(van, today.plusDays(2), today.plusDays(4));
+        try (DurableReservationRepository repository = open(options)) {
+            repository.save(original);
+            assertTrue(repository.replace(original.getId(), replacement));
+        }
+
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(Set.of(replacement), repository.findAll().collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void shouldRecoverFromSnapshotAndTruncateLog() throws Exception {
+        DurabilityOptions options = options(FsyncPolicy.PER_OPERATION);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        LocalDate today = LocalDate.now();
+        ReservationDetails beforeSnapshot = reservation(van, today.plusDays(1), today.plusDays(2));
+        ReservationDetails afterSnapshot = reservation(van, today.plusDays(4), today.plusDays(5));
+        try (DurableReservationRepository repository = open(options)) {
+            repository.save(beforeSnapshot);
+            repository.snapshot().join();
+            repository.save(afterSnapshot);
+        }
+
+        assertEquals(1, logSegments().size());
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(Set.of(beforeSnapshot, afterSnapshot), repository.findAll().collect(Collectors.toSet()));
+            repository.deleteAll();
+        }
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(0, repository.findAll().count());
+        }
+    }
+
+    @Test
+    void shouldIgnoreTornLogTail() throws Exception {
+        DurabilityOptions options = options(FsyncPolicy.BATCHED_BY_COUNT);
+        Vehicle suv = new Vehicle(VehicleType.SUV);
+        LocalDate today = LocalDate.now();
+        ReservationDetails details = reservation(suv, today.plusDays(1), today.plusDays(2));
+        try (DurableReservationRepository repository = open(options)) {
+            repository.save(details);
+        }
+        Files.write(logSegments().get(0), new byte[]{0, 0, 0, 60, 1, 2}, StandardOpenOption.APPEND);
+
+        ReservationDetails afterCrash = reservation(suv, today.plusDays(3), today.plusDays(4));
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(Optional.of(details), repository.findById(details.getId()));
+            repository.save(afterCrash);
+        }
+        try (DurableReservationRepository repository = open(options)) {
+            assertEquals(Set.of(details, afterCrash), repository.findAll().collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    void shouldUndoWritesWhichCannotBeLogged() throws Exception {
+        ReservationRepository delegate = new IntervalTreeReservationRepositoryImpl();
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        LocalDate today = LocalDate.now();
+        ReservationDetails kept = reservation(van, today.plusDays(1), today.plusDays(2));
+        ReservationDetails rejected = reservation(van, today.plusDays(4), today.plusDays(5));
+        DurableReservationRepository repository = DurableReservationRepository.open(delegate,
+                options(FsyncPolicy.PER_OPERATION));
+        repository.save(kept);
+        repository.close();
+
+        assertThrows(UncheckedIOException.class, () -> repository.tryReserve(rejected));
+        assertThrows(UncheckedIOException.class, () -> repository.remove(kept.getId()));
+        assertThrows(UncheckedIOException.class, () -> repository.replace(kept.getId(), rejected));
+
+        assertEquals(Set.of(kept), delegate.findAll().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldDeleteInterruptedSnapshotWrites() throws Exception {
+        Path temporary = directory.resolve("snapshot-3.tmp");
+        Files.write(temporary, new byte[]{1, 2, 3});
+
+        try (DurableReservationRepository repository = open(options(FsyncPolicy.PER_OPERATION))) {
+            assertEquals(0, repository.findAll().count());
+        }
+        assertFalse(Files.exists(temporary));
+    }
+
+    @Test
+    void shouldRejectLogOfPreviousFormat() throws Exception {
+        // a segment of the format without a header, holding a single delete-all entry
+        Files.write(directory.resolve("wal-0.log"), new byte[]{0, 0, 0, 1, 0, 0, 0, 0, 3});
+
+        assertThrows(IllegalStateException.class, () -> open(options(FsyncPolicy.PER_OPERATION)));
+    }
+
+    private DurableReservationRepository open(DurabilityOptions options) {
+        return DurableReservationRepository.open(new IntervalTreeReservationRepositoryImpl(), options);
+    }
+
+    private DurabilityOptions options(FsyncPolicy fsyncPolicy) {
+        return DurabilityOptions.DurabilityOptionsBuilder.newInstance()
+                .directory(directory)
+                .fsyncPolicy(fsyncPolicy)
+                .batchInterval(Duration.ofMillis(5))
+                .batchSize(8)
+                .build();
+    }
+
+    private List<Path> logSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
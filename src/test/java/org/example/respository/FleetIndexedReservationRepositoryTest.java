@@ -0,0 +1,71 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetIndexedReservationRepositoryTest {
+
+    private ReservationRepository repository;
+    private Vehicle firstSuv;
+    private Vehicle secondSuv;
+    private Set<Vehicle> suvs;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FleetIndexedReservationRepository(new IntervalTreeReservationRepositoryImpl());
+        firstSuv = new Vehicle(VehicleType.SUV);
+        secondSuv = new Vehicle(VehicleType.SUV);
+        suvs = Set.of(firstSuv, secondSuv);
+    }
+
+    @Test
+    void shouldOnlyReturnVehiclesFreeOnEveryDay() {
+        LocalDate today = LocalDate.now();
+        repository.save(reservation(firstSuv, today.plusDays(1), today.plusDays(3)));
+        repository.save(reservation(secondSuv, today.plusDays(6), today.plusDays(8)));
+
+        assertEquals(Set.of(secondSuv.getId()), available(today.plusDays(3), today.plusDays(5)));
+        assertEquals(Set.of(), available(today.plusDays(2), today.plusDays(6)));
+        assertEquals(Set.of(firstSuv.getId(), secondSuv.getId()), available(today.plusDays(4), today.plusDays(5)));
+    }
+
+    @Test
+    void shouldReleaseDaysOnRemove() {
+        LocalDate today = LocalDate.now();
+        ReservationDetails details = reservation(firstSuv, today.plusDays(1), today.plusDays(3));
+        repository.save(details);
+        assertTrue(repository.tryReserve(reservation(secondSuv, today.plusDays(2), today.plusDays(2))));
+        assertEquals(Set.of(), available(today.plusDays(2), today.plusDays(2)));
+
+        repository.remove(details.getId());
+
+        assertEquals(Set.of(firstSuv.getId()), available(today.plusDays(2), today.plusDays(2)));
+    }
+
+    @Test
+    void shouldIgnoreVehiclesOutsideOfCandidates() {
+        LocalDate today = LocalDate.now();
+        repository.save(reservation(new Vehicle(VehicleType.SUV), today.plusDays(1), today.plusDays(3)));
+
+        List<UUID> result = repository.findAvailableVehicles(VehicleType.SUV, Set.of(firstSuv),
+                today.plusDays(1), today.plusDays(3)).toList();
+
+        assertEquals(List.of(firstSuv.getId()), result);
+    }
+
+    private Set<UUID> available(LocalDate from, LocalDate to) {
+        return repository.findAvailableVehicles(VehicleType.SUV, suvs, from, to).collect(Collectors.toSet());
+    }
+}
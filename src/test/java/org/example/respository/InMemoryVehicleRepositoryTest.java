@@ -0,0 +1,102 @@
+package org.example.respository;
+
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryVehicleRepositoryTest {
+
+    private final InMemoryVehicleRepository repository = new InMemoryVehicleRepository();
+
+    @Test
+    void shouldBulkLoadOnTopOfExistingFleet() {
+        Vehicle existing = new Vehicle(VehicleType.SUV);
+        repository.save(existing);
+        List<Vehicle> fleet = fleet(50_000);
+
+        repository.saveAll(fleet);
+
+        assertEquals(existing, repository.getVehicleByVehicleId(existing.getId()));
+        fleet.forEach(vehicle -> assertEquals(vehicle, repository.getVehicleByVehicleId(vehicle.getId())));
+        assertEquals(12_501, repository.getVehiclesByType(VehicleType.SUV).size());
+        assertEquals(12_500, repository.getVehiclesByType(VehicleType.SEDAN).size());
+    }
+
+    @Test
+    void shouldCopyOnlyThePartitionsOfLoadedTypes() {
+        Vehicle sedan = new Vehicle(VehicleType.SEDAN);
+        repository.saveAll(List.of(sedan, new Vehicle(VehicleType.VAN)));
+        Set<Vehicle> sedans = repository.getVehiclesByType(VehicleType.SEDAN);
+        Set<Vehicle> vans = repository.getVehiclesByType(VehicleType.VAN);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+
+        repository.saveAll(List.of(van));
+
+        assertSame(sedans, repository.getVehiclesByType(VehicleType.SEDAN));
+        assertNotSame(vans, repository.getVehiclesByType(VehicleType.VAN));
+        assertEquals(1, vans.size());
+        assertEquals(2, repository.getVehiclesByType(VehicleType.VAN).size());
+        assertEquals(sedan, repository.getVehicleByVehicleId(sedan.getId()));
+        assertEquals(van, repository.getVehicleByVehicleId(van.getId()));
+    }
+
+    @Test
+    void shouldRejectIdsSavedWithAnotherType() {
+        Vehicle sedan = new Vehicle(VehicleType.SEDAN);
+        repository.save(sedan);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.saveAll(List.of(van, new Vehicle(VehicleType.SUV, sedan.getId()))));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.saveAll(List.of(van, new Vehicle(VehicleType.SUV, van.getId()))));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.save(new Vehicle(VehicleType.VAN, sedan.getId())));
+
+        assertNull(repository.getVehiclesByType(VehicleType.VAN));
+        assertNull(repository.getVehiclesByType(VehicleType.SUV));
+        assertEquals(sedan, repository.getVehicleByVehicleId(sedan.getId()));
+        repository.saveAll(List.of(sedan, van));
+        assertEquals(Set.of(sedan), repository.getVehiclesByType(VehicleType.SEDAN));
+    }
+
+    @Test
+    void shouldNeverExposeHalfLoadedFleet()throws Exception {
+        AtomicBoolean loading = new AtomicBoolean(true);
+        AtomicReference<Integer> unexpectedSize = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (loading.get()) {
+                Set<Vehicle> vans = repository.getVehiclesByType(VehicleType.VAN);
+                int size = vans == null ? 0 : vans.size();
+                if (size % 5_000 != 0) {
+                    unexpectedSize.set(size);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 5; i++) {
+            repository.saveAll(fleet(20_000));
+        }
+        loading.set(false);
+        reader.join();
+
+        assertNull(unexpectedSize.get());
+        assertEquals(25_000, repository.getVehiclesByType(VehicleType.VAN).size());
+    }
+
+    private static List<Vehicle> fleet(int size) {
+        List<Vehicle> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            fleet.add(new Vehicle(VehicleType.values()[i % VehicleType.values().length]));
+        }
+        return fleet;
+    }
+}
@@ -0,0 +1,167 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.id.IdGenerator;
+import org.example.id.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeReservationRepositoryImplTest {
+
+    private ReservationRepository repository;
+    private Vehicle van;
+
+    @BeforeEach
+    void setUp() {
+        repository = new IntervalTreeReservationRepositoryImpl();
+        van = new Vehicle(VehicleType.VAN);
+    }
+
+    @Test
+    void shouldScanReservationsByCreationTime() {
+        AtomicLong clock = new AtomicLong(1_900_000_000_000L);
+        IdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        List<ReservationDetails> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ReservationDetails details = ReservationDetails.restore(generator.next(), van, 1000,
+                    day.plusDays(i), day.plusDays(i));
+            repository.save(details);
+            created.add(details);
+            clock.addAndGet(10);
+        }
+        repository.save(ReservationDetails.restore(UUID.randomUUID(), van, 1000, day.plusDays(20), day.plusDays(20)));
+        // keeps no id order and falls back to scanning every reservation
+        ReservationRepository scanning = new CompactReservationRepositoryImpl();
+        repository.findAll().forEach(scanning::save);
+        Instant from = Instant.ofEpochMilli(1_900_000_000_020L);
+        Instant to = Instant.ofEpochMilli(1_900_000_000_059L);
+
+        assertEquals(created.subList(2, 6), repository.findCreatedBetween(from, to).toList());
+        assertEquals(Set.copyOf(created.subList(2, 6)), scanning.findCreatedBetween(from, to).collect(Collectors.toSet()));
+        assertEquals(List.of(), repository.findCreatedBetween(to, from).toList());
+    }
+
+    @Test
+    void shouldTreatBoundaryDaysAsOverlapping() {
+        LocalDate today = LocalDate.now();
+        repository.save(reservation(van, today.plusDays(5), today.plusDays(7)));
+
+        assertFalse(repository.isAvailableOnDates(van.getId(), today.plusDays(7), today.plusDays(9)));
+        assertFalse(repository.isAvailableOnDates(van.getId(), today.plusDays(3), today.plusDays(5)));
+        assertFalse(repository.isAvailableOnDates(van.getId(), today.plusDays(6), today.plusDays(6)));
+        assertFalse(repository.isAvailableOnDates(van.getId(), today.plusDays(1), today.plusDays(10)));
+        assertTrue(repository.isAvailableOnDates(van.getId(), today.plusDays(8), today.plusDays(9)));
+        assertTrue(repository.isAvailableOnDates(van.getId(), today.plusDays(1), today.plusDays(4)));
+        assertTrue(repository.isAvailableOnDates(UUID.randomUUID(), today.plusDays(5), today.plusDays(7)));
+    }
+
+    @Test
+    void shouldFreeDatesOnRemove() {
+        LocalDate today = LocalDate.now();
+        ReservationDetails details = reservation(van, today.plusDays(5), today.plusDays(7));
+        repository.save(details);
+
+        assertEquals(details, repository.remove(details.getId()));
+        assertTrue(repository.isAvailableOnDates(van.getId(), today.plusDays(5), today.plusDays(7)));
+        assertThrows(InvalidReservationIdException.class, () -> repository.remove(details.getId()));
+    }
+
+    @Test
+    void failOverlappingSave() {
+        LocalDate today = LocalDate.now();
+        repository.save(reservation(van, today.plusDays(5), today.plusDays(7)));
+
+        assertThrows(ReservationNotPossibleException.class,
+                () -> repository.save(reservation(van, today.plusDays(7), today.plusDays(8))));
+    }
+
+    @Test
+    void shouldAgreeWithLinearScanRepository() {
+        ReservationRepository reference = new InMemoryReservationRepositoryImpl();
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate from = today.plusDays(random.nextInt(365));
+            LocalDate to = from.plusDays(random.nextInt(6));
+            boolean expected = reference.isAvailableOnDates(van.getId(), from, to);
+            assertEquals(expected, repository.isAvailableOnDates(van.getId(), from, to));
+            if (expected) {
+                ReservationDetails details = reservation(van, from, to);
+                reference.save(details);
+                repository.save(details);
+            }
+        }
+    }
+
+    @Test
+    void shouldAnswerDateQueriesLikeFullScan() {
+        ReservationRepository scanned = new CompactReservationRepositoryImpl();
+        Random random = new Random(7);
+        LocalDate today = LocalDate.now();
+        List<ReservationDetails> saved = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Vehicle vehicle = new Vehicle(VehicleType.SEDAN);
+            LocalDate from = today.plusDays(random.nextInt(60));
+            ReservationDetails details = reservation(vehicle, from, from.plusDays(random.nextInt(10)));
+            repository.save(details);
+            scanned.save(details);
+            saved.add(details);
+        }
+        for (int i = 0; i < 100; i++) {
+            repository.remove(saved.get(i).getId());
+            scanned.remove(saved.get(i).getId());
+        }
+
+        for (int day = 0; day < 75; day++) {
+            LocalDate date = today.plusDays(day);
+            assertEquals(scanned.findActiveOn(date).collect(Collectors.toSet()),
+                    repository.findActiveOn(date).collect(Collectors.toSet()));
+            assertEquals(scanned.findPickupsBetween(date, date.plusDays(3)).collect(Collectors.toSet()),
+                    repository.findPickupsBetween(date, date.plusDays(3)).collect(Collectors.toSet()));
+            assertEquals(scanned.findReturnsBetween(date, date.plusDays(3)).collect(Collectors.toSet()),
+                    repository.findReturnsBetween(date, date.plusDays(3)).collect(Collectors.toSet()));
+        }
+        List<LocalDate> pickups = repository.findPickupsBetween(today, today.plusDays(90))
+                .map(ReservationDetails::getFromDate)
+                .toList();
+        assertEquals(400, pickups.size());
+        assertEquals(pickups.stream().sorted().toList(), pickups);
+    }
+
+    @Test
+    void shouldShrinkActiveOnScanOnceLongReservationsAreGone() {
+        ReservationDateIndex index = new ReservationDateIndex();
+        LocalDate today = LocalDate.now();
+        ReservationDetails longStay = reservation(new Vehicle(VehicleType.VAN), today, today.plusDays(300));
+        ReservationDetails shortStay = reservation(new Vehicle(VehicleType.VAN), today.plusDays(5), today.plusDays(7));
+        index.add(longStay);
+        index.add(shortStay);
+        assertEquals(300, index.getLongestSpanDays());
+
+        index.remove(longStay);
+        index.remove(longStay);
+
+        assertEquals(2, index.getLongestSpanDays());
+        assertEquals(List.of(shortStay), index.activeOn(today.plusDays(6)).toList());
+        index.clear();
+        assertEquals(0, index.getLongestSpanDays());
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedRepositoriesTest {
+
+    private static final int FILE_HEADER = 16;
+    private static final int RECORD_HEADER = 24;
+    private static final int RESERVATION_RECORD = 80;
+    private static final int STATE = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRestoreFleetAndReservationsAfterReopen() throws Exception {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        Vehicle suv = new Vehicle(VehicleType.SUV);
+        LocalDate today = LocalDate.now();
+        ReservationDetails kept = reservation(van, today.plusDays(1), today.plusDays(3));
+        ReservationDetails cancelled = reservation(suv, today.plusDays(1), today.plusDays(3));
+        try (MappedVehicleRepository vehicles = MappedVehicleRepository.open(directory.resolve("vehicles.dat"));
+             MappedReservationRepositoryImpl reservations =
+                     MappedReservationRepositoryImpl.open(directory.resolve("reservations.dat"))) {
+            vehicles.saveAll(Set.of(van, suv));
+            reservations.save(kept);
+            reservations.save(cancelled);
+            reservations.remove(cancelled.getId());
+        }
+
+        try (MappedVehicleRepository vehicles = MappedVehicleRepository.open(directory.resolve("vehicles.dat"));
+             MappedReservationRepositoryImpl reservations =
+                     MappedReservationRepositoryImpl.open(directory.resolve("reservations.dat"))) {
+            assertEquals(van, vehicles.getVehicleByVehicleId(van.getId()));
+            assertEquals(Set.of(suv), vehicles.getVehiclesByType(VehicleType.SUV));
+            assertEquals(Optional.of(kept), reservations.findById(kept.getId()));
+            assertEquals(Optional.empty(), reservations.findById(cancelled.getId()));
+            assertFalse(reservations.isAvailableOnDates(van.getId(), today.plusDays(2), today.plusDays(2)));
+            assertTrue(reservations.isAvailableOnDates(suv.getId(), today.plusDays(2), today.plusDays(2)));
+            assertEquals(0, reservations.getRepairedRecords());
+        }
+    }
+
+    @Test
+    void shouldDropTornRecordOnOpen() throws Exception {
+        Path path = directory.resolve("reservations.dat");
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        LocalDate today = LocalDate.now();
+        ReservationDetails torn = reservation(van, today.plusDays(1), today.plusDays(3));
+        ReservationDetails intact = reservation(van, today.plusDays(5), today.plusDays(6));
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            reservations.save(torn);
+            reservations.save(intact);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // price of the first record, written after the state but before the checksum
+            file.seek(FILE_HEADER + RECORD_HEADER + 44);
+            file.writeDouble(-1);
+        }
+
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            assertEquals(1, reservations.getRepairedRecords());
+            assertEquals(Optional.empty(), reservations.findById(torn.getId()));
+            assertEquals(Optional.of(intact), reservations.findById(intact.getId()));
+            assertTrue(reservations.isAvailableOnDates(van.getId(), today.plusDays(1), today.plusDays(3)));
+        }
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            assertEquals(0, reservations.getRepairedRecords());
+        }
+    }
+
+    @Test
+    void shouldKeepOneOfTwoRecordsOfAnInterruptedReplace() throws Exception {
+        Path path = directory.resolve("reservations.dat");
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        LocalDate today = LocalDate.now();
+        ReservationDetails original = reservation(van, today.plusDays(1), today.plusDays(3));
+        ReservationDetails replacement = reservation(van, today.plusDays(2), today.plusDays(5));
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            reservations.save(original);
+            assertTrue(reservations.replace(original.getId(), replacement));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // crash before the slot of the original was freed, its checksum still covers the live state
+            file.seek(FILE_HEADER + STATE);
+            file.writeInt(1);
+        }
+
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            assertEquals(0, reservations.getRepairedRecords());
+            assertEquals(Optional.empty(), reservations.findById(original.getId()));
+            assertEquals(List.of(replacement), reservations.findAll().toList());
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // crash while the replacement was written, before the original was freed
+            file.seek(FILE_HEADER + STATE);
+            file.writeInt(1);
+            file.seek(FILE_HEADER + RESERVATION_RECORD + RECORD_HEADER + 44);
+            file.writeLong(-1);
+        }
+
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            assertEquals(1, reservations.getRepairedRecords());
+            assertEquals(Optional.empty(), reservations.findById(replacement.getId()));
+            assertEquals(List.of(original), reservations.findAll().toList());
+        }
+    }
+
+    @Test
+    void shouldAnswerQueriesFromMappedRecords() throws Exception {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        Vehicle suv = new Vehicle(VehicleType.SUV);
+        LocalDate today = LocalDate.now();
+        ReservationDetails first = reservation(van, today.plusDays(1), today.plusDays(3));
+        ReservationDetails second = reservation(suv, today.plusDays(2), today.plusDays(6));
+        ReservationDetails moved = reservation(van, today.plusDays(4), today.plusDays(5));
+        ReservationDetails later = reservation(van, today.plusDays(8), today.plusDays(9));
+        try (MappedReservationRepositoryImpl reservations =
+                     MappedReservationRepositoryImpl.open(directory.resolve("reservations.dat"))) {
+            reservations.save(first);
+            reservations.save(second);
+            reservations.save(later);
+            assertFalse(reservations.replace(first.getId(), reservation(van, today, today.plusDays(8))));
+            assertTrue(reservations.replace(first.getId(), moved));
+
+            assertEquals(Set.of(moved, second), Set.copyOf(reservations.findActiveOn(today.plusDays(4)).toList()));
+            assertEquals(List.of(second), reservations.findActiveOn(today.plusDays(2)).toList());
+            assertEquals(List.of(moved),
+                    reservations.findPickupsBetween(today.plusDays(3), today.plusDays(4)).toList());
+            assertEquals(List.of(second),
+                    reservations.findReturnsBetween(today.plusDays(6), today.plusDays(7)).toList());
+            assertTrue(reservations.isAvailableOnDates(van.getId(), today.plusDays(1), today.plusDays(3)));
+            assertFalse(reservations.isAvailableOnDates(van.getId(), today.plusDays(5), today.plusDays(7)));
+            assertFalse(reservations.tryReserve(reservation(van, today.plusDays(3), today.plusDays(4))));
+            assertEquals(Optional.empty(), reservations.findById(first.getId()));
+            assertEquals(Optional.of(moved), reservations.findById(moved.getId()));
+        }
+    }
+
+    @Test
+    void shouldRejectFileOfPreviousFormat() throws Exception {
+        Path path = directory.resolve("reservations.dat");
+        try (MappedReservationRepositoryImpl reservations = MappedReservationRepositoryImpl.open(path)) {
+            reservations.save(reservation(new Vehicle(VehicleType.VAN), LocalDate.now(), LocalDate.now().plusDays(1)));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // version of the record file layout which stored the price as a double
+            file.seek(4);
+            file.writeInt(1);
+        }
+
+        assertThrows(IllegalStateException.class, () -> MappedReservationRepositoryImpl.open(path));
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+
+import java.time.LocalDate;
+
+/**
+ * Reservations shared by the repository tests.
+ */
+final class ReservationFixtures {
+
+    private ReservationFixtures() {
+    }
+
+    static ReservationDetails reservation(Vehicle vehicle, LocalDate from, LocalDate to) {
+        return ReservationDetails.ReservationDetailsBuilder.newInstance()
+                .vehicle(vehicle)
+                .fromDate(from)
+                .toDate(to)
+                .mileage(100)
+                .licenseYears(4)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.respository;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.example.respository.ReservationFixtures.reservation;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedReservationRepositoryTest {
+
+    private ShardedReservationRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedReservationRepository(4);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        repository.close();
+    }
+
+    @Test
+    void shouldRouteReservationsAcrossShards() {
+        LocalDate today = LocalDate.now();
+        List<Vehicle> vans = new ArrayList<>();
+        List<ReservationDetails> reservations = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            Vehicle van = new Vehicle(VehicleType.VAN);
+            vans.add(van);
+            ReservationDetails details = reservation(van, today.plusDays(1), today.plusDays(3));
+            assertTrue(repository.tryReserve(details));
+            reservations.add(details);
+        }
+
+        assertFalse(repository.tryReserve(reservation(vans.get(7), today.plusDays(3), today.plusDays(4))));
+        assertEquals(32, repository.findAll().count());
+        assertEquals(Set.of(), repository.findAvailableVehicles(VehicleType.VAN, vans, today.plusDays(2),
+                today.plusDays(2)).collect(Collectors.toSet()));
+
+        assertEquals(reservations.get(7), repository.remove(reservations.get(7).getId()));
+        assertTrue(repository.findById(reservations.get(7).getId()).isEmpty());
+        assertEquals(reservations.get(8), repository.findById(reservations.get(8).getId()).orElseThrow());
+        assertEquals(List.of(vans.get(7).getId()), repository.findAvailableVehicles(VehicleType.VAN, vans,
+                today.plusDays(2), today.plusDays(2)).toList());
+        assertThrows(InvalidReservationIdException.class, () -> repository.remove(UUID.randomUUID()));
+    }
+
+    @Test
+    void shouldRejectCommandsOnceClosed() {
+        repository.deleteAll();
+        repository.close();
+
+        assertThrows(RejectedExecutionException.class, () -> repository.isAvailableOnDates(UUID.randomUUID(),
+                LocalDate.now(), LocalDate.now()));
+    }
+
+    @Test
+    void shouldCheckFurtherChunksOnlyWhenMoreVehiclesArePulled() {
+        AtomicInteger checked = new AtomicInteger();
+        repository.close();
+        repository = new ShardedReservationRepository(4, () -> new IntervalTreeReservationRepositoryImpl() {
+            @Override
+            public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+                checked.incrementAndGet();
+                return super.isAvailableOnDates(vehicleId, fromDate, toDate);
+            }
+        });
+        List<Vehicle> vans = new ArrayList<>();
+        for (int i = 0; i < 40 * ShardedReservationRepository.AVAILABILITY_CHUNK_SIZE; i++) {
+            vans.add(new Vehicle(VehicleType.VAN));
+        }
+        LocalDate today = LocalDate.now();
+
+        assertTrue(repository.findAvailableVehicles(VehicleType.VAN, vans, today, today).findFirst().isPresent());
+        repository.deleteAll();
+        assertTrue(checked.get() <= 4 * ShardedReservationRepository.AVAILABILITY_CHUNK_SIZE);
+
+        assertEquals(vans.size(), repository.findAvailableVehicles(VehicleType.VAN, vans, today, today).count());
+    }
+
+    @Test
+    void shouldKeepServingAfterCommandThrowsError() {
+        repository.close();
+        repository = new ShardedReservationRepository(1, () -> new IntervalTreeReservationRepositoryImpl() {
+            @Override
+            public Stream<ReservationDetails> findAll() {
+                throw new AssertionError("broken shard");
+            }
+        });
+        Vehicle van = new Vehicle(VehicleType.VAN);
+
+        assertThrows(AssertionError.class, () -> repository.findAll().toList());
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertTrue(repository.tryReserve(reservation(van, LocalDate.now(), LocalDate.now()))));
+    }
+}
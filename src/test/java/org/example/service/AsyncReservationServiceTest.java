@@ -0,0 +1,121 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.respository.ReservationRepository;
+import org.example.respository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncReservationServiceTest {
+
+    private ReservationRepository reservationRepository;
+    private VehicleRepository vehicleRepository;
+    private AsyncReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = new InMemoryReservationRepositoryImpl();
+        vehicleRepository = new InMemoryVehicleRepository();
+        service = new AsyncReservationServiceImpl(new ReservationServiceImpl(reservationRepository, vehicleRepository),
+                reservationRepository, AsyncServiceOptions.AsyncServiceOptionsBuilder.newInstance().build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        service.close();
+    }
+
+    @Test
+    void shouldRunCallsForTheSameVehicleInSubmissionOrder() throws Exception {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(List.of(van));
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+
+        List<CompletableFuture<ReservationDetails>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(service.reserveCarByVehicleId(van.getId(), fromDate.plusDays(i * 2L), fromDate.plusDays(i * 2L),
+                    100, 4));
+        }
+        futures.add(service.reserveCarByVehicleId(van.getId(), fromDate, fromDate, 100, 4));
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(error -> null).join();
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(fromDate.plusDays(i * 2L), futures.get(i).get().getFromDate());
+        }
+        ExecutionException error = assertThrows(ExecutionException.class, () -> futures.get(50).get());
+        assertInstanceOf(ReservationNotPossibleException.class, error.getCause());
+    }
+
+    @Test
+    void shouldLookUpTheVehicleOfAReservationOffTheCallerThread() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ReservationRepository blockingRepository = mock(ReservationRepository.class);
+        when(blockingRepository.findById(any())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+        ReservationService cancellingService = mock(ReservationService.class);
+        ReservationDetails cancelled = ReservationDetails.restore(UUID.randomUUID(), new Vehicle(VehicleType.VAN), 0,
+                LocalDate.now(), LocalDate.now());
+        when(cancellingService.cancelReservation(cancelled.getId())).thenReturn(cancelled);
+        AsyncReservationService async = new AsyncReservationServiceImpl(cancellingService, blockingRepository,
+                AsyncServiceOptions.AsyncServiceOptionsBuilder.newInstance().build());
+
+        CompletableFuture<ReservationDetails> first = async.cancelReservation(cancelled.getId());
+        CompletableFuture<ReservationDetails> second = async.cancelReservation(cancelled.getId());
+
+        assertFalse(first.isDone());
+        release.countDown();
+        assertEquals(cancelled, first.get());
+        assertEquals(cancelled, second.get());
+        async.close();
+    }
+
+    @Test
+    void shouldRejectCallsBeyondTheInFlightLimit() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ReservationService blockingService = mock(ReservationService.class);
+        when(blockingService.getOptions(any(), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        AsyncReservationService limited = new AsyncReservationServiceImpl(blockingService, reservationRepository,
+                AsyncServiceOptions.AsyncServiceOptionsBuilder.newInstance().maxInFlight(2).build());
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+
+        CompletableFuture<Map<VehicleType, Double>> first = limited.getOptions(fromDate, fromDate, 100, 4);
+        CompletableFuture<Map<VehicleType, Double>> second = limited.getOptions(fromDate, fromDate, 100, 4);
+        CompletableFuture<Map<VehicleType, Double>> rejected = limited.getOptions(fromDate, fromDate, 100, 4);
+
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        release.countDown();
+        assertEquals(Map.of(), first.get());
+        assertEquals(Map.of(), second.get());
+        limited.close();
+        assertTrue(limited.getOptions(fromDate, fromDate, 100, 4).isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.InvalidReservationIdException;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.metrics.JmxMetricsExporter;
+import org.example.metrics.MetricsRegistry;
+import org.example.metrics.SimpleMetricsRegistry;
+import org.example.respository.AnalyticsReservationRepository;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.respository.InstrumentedReservationRepository;
+import org.example.respository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedReservationServiceTest {
+
+    @Test
+    void shouldCountOutcomesAndExportThemOverJmx() throws Exception {
+        MetricsRegistry registry = new SimpleMetricsRegistry();
+        VehicleRepository vehicleRepository = new InMemoryVehicleRepository();
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(List.of(van, new Vehicle(VehicleType.VAN)));
+        AnalyticsReservationRepository analytics =
+                new AnalyticsReservationRepository(new InMemoryReservationRepositoryImpl());
+        ReservationService service = new InstrumentedReservationService(new ReservationServiceImpl(
+                new InstrumentedReservationRepository(analytics, registry, analytics.getCounters()),
+                vehicleRepository), registry);
+        LocalDate today = LocalDate.now();
+
+        service.reserveCarByVehicleId(van.getId(), today, today.plusDays(2), 100, 4);
+        assertThrows(ReservationNotPossibleException.class,
+                () -> service.reserveCarByVehicleId(van.getId(), today, today.plusDays(1), 100, 4));
+        service.reserveCarByType(VehicleType.VAN, today, today.plusDays(1), 100, 4);
+        assertThrows(InvalidReservationIdException.class, () -> service.cancelReservation(UUID.randomUUID()));
+
+        Map<String, Number> metrics = registry.snapshot();
+        assertEquals(2L, metrics.get("reservation.service.reserveCarByVehicleId.requests"));
+        assertEquals(1L, metrics.get("reservation.service.reserveCarByVehicleId.successes"));
+        assertEquals(1L, metrics.get("reservation.service.reserveCarByVehicleId.notPossible"));
+        assertEquals(1L, metrics.get("reservation.service.cancelReservation.failures"));
+        assertEquals(2L, metrics.get("reservation.service.reserveCarByVehicleId.latency.count"));
+        assertEquals(2L, metrics.get("reservation.repository.tryReserve.reserved"));
+        assertEquals(1L, metrics.get("reservation.repository.findAvailableVehicles.candidates"));
+        assertEquals(2L, metrics.get("reservation.repository.occupancy.VAN"));
+        assertEquals(metrics.keySet(), registry.names());
+        metrics.forEach((metric, value) -> assertEquals(value, registry.get(metric), metric));
+        assertNull(registry.get("reservation.service.reserveCarByVehicleId.latency.p75"));
+
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        JmxMetricsExporter exporter = JmxMetricsExporter.export(registry, server,
+                JmxMetricsExporter.DEFAULT_OBJECT_NAME);
+        try {
+            ObjectName name = new ObjectName(JmxMetricsExporter.DEFAULT_OBJECT_NAME);
+            assertEquals(1L, server.getAttribute(name, "reservation.service.reserveCarByType.successes"));
+            assertTrue(server.getMBeanInfo(name).getAttributes().length >= metrics.size());
+            assertEquals(1, server.getAttributes(name, new String[]{"reservation.repository.occupancy.VAN",
+                    "reservation.unknown"}).size());
+            assertThrows(ReflectionException.class, () -> server.invoke(name, "reset", null, null));
+        } finally {
+            exporter.close();
+        }
+    }
+
+    @Test
+    void shouldLeaveOccupancyOutWithoutFleetCounters() {
+        MetricsRegistry registry = new SimpleMetricsRegistry();
+
+        new InstrumentedReservationRepository(new InMemoryReservationRepositoryImpl(), registry);
+
+        assertTrue(registry.names().stream().noneMatch(metric -> metric.contains("occupancy")));
+        assertTrue(registry.names().contains("reservation.repository.tryReserve.reserved"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.service;
+
+import org.example.domain.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceQuotesTest {
+
+    @Test
+    void shouldPriceEveryTypeAtItsOrdinal() {
+        long[] prices = new long[PriceQuotes.TYPE_COUNT];
+
+        PriceQuotes.quote(10, 100, 2, prices);
+
+        for (VehicleType type : VehicleType.values()) {
+            assertEquals(type.calculatePriceCents(10, 100, 2), prices[type.ordinal()]);
+        }
+    }
+
+    @Test
+    void shouldRankCheapestFirstKeepingDeclarationOrderOnTies() {
+        long[] prices = {3000, 1000, 3000, 500};
+        int[] ranking = new int[PriceQuotes.TYPE_COUNT];
+
+        PriceQuotes.rankByPrice(prices, ranking);
+
+        assertArrayEquals(new int[]{3, 1, 0, 2}, ranking);
+        Map<VehicleType, Double> options = PriceQuotes.toOptions(prices, ranking);
+        assertEquals(List.of(VehicleType.PICKUP_TRUCK, VehicleType.VAN, VehicleType.SEDAN, VehicleType.SUV),
+                List.copyOf(options.keySet()));
+        assertEquals(List.of(5.0, 10.0, 30.0, 30.0), List.copyOf(options.values()));
+    }
+}
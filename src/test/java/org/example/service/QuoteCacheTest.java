@@ -0,0 +1,122 @@
+package org.example.service;
+
+import org.example.domain.VehicleType;
+import org.example.pricing.PricingEngine;
+import org.example.pricing.Tariff;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QuoteCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Tariff tariff = PricingEngine.getTariff();
+
+    @Test
+    void shouldServeRepeatedQuotesFromCache() {
+        QuoteCache cache = new QuoteCache(10);
+
+        Map<VehicleType, Double> first = cache.get(tariff, 0, 3, 100, 4, this::load);
+        Map<VehicleType, Double> second = cache.get(tariff, 0, 3, 100, 4, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        QuoteCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedQuote() {
+        QuoteCache cache = new QuoteCache(2);
+        cache.get(tariff, 0, 1, 100, 4, this::load);
+        cache.get(tariff, 0, 2, 100, 4, this::load);
+        cache.get(tariff, 0, 1, 100, 4, this::load);
+
+        cache.get(tariff, 0, 3, 100, 4, this::load);
+        cache.get(tariff, 0, 1, 100, 4, this::load);
+        cache.get(tariff, 0, 2, 100, 4, this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    void shouldReloadAfterInvalidation() {
+        QuoteCache cache = new QuoteCache(10);
+        cache.get(tariff, 0, 3, 100, 4, this::load);
+
+        cache.invalidateAll();
+        cache.get(tariff, 0, 3, 100, 4, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotCacheLoadOverlappingInvalidation() {
+        QuoteCache cache = new QuoteCache(10);
+
+        cache.get(tariff, 0, 3, 100, 4, (days, mileage, licenseYears) -> {
+            cache.invalidateAll();
+            return load(days, mileage, licenseYears);
+        });
+        cache.get(tariff, 0, 3, 100, 4, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldBoundSizeAcrossStripes() {
+        QuoteCache cache = new QuoteCache(QuoteCache.DEFAULT_MAXIMUM_SIZE);
+        for (int days = 0; days < 2 * QuoteCache.DEFAULT_MAXIMUM_SIZE; days++) {
+            cache.get(tariff, 0, days, 100, 4, this::load);
+        }
+
+        assertTrue(cache.getStats().getSize() <= QuoteCache.DEFAULT_MAXIMUM_SIZE);
+        assertEquals(2L * QuoteCache.DEFAULT_MAXIMUM_SIZE - cache.getStats().getSize(),
+                cache.getStats().getEvictions());
+    }
+
+    @Test
+    void shouldInvalidateOnlyWhenTheTariffVersionAdvances() {
+        QuoteCache cache = new QuoteCache(10);
+        Tariff reloaded = tariff(2);
+        Tariff stale = tariff(1);
+        cache.get(reloaded, 0, 3, 100, 4, this::load);
+
+        cache.get(stale, 0, 3, 100, 4, this::load);
+        cache.get(reloaded, 0, 3, 100, 4, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    void shouldReturnReadOnlyOptionsFromService() {
+        ReservationService service = new ReservationServiceImpl(null, null);
+        Map<VehicleType, Double> options = service.getOptions(LocalDate.now(),
+                LocalDate.now().plusDays(3), 100, 4);
+
+        assertSame(options, service.getOptions(LocalDate.now(), LocalDate.now().plusDays(3), 100, 4));
+        assertThrows(UnsupportedOperationException.class, () -> options.put(VehicleType.SUV, 0.0));
+    }
+
+    private static Tariff tariff(long version) {
+        Tariff tariff = mock(Tariff.class);
+        when(tariff.getVersion()).thenReturn(version);
+        return tariff;
+    }
+
+    private Map<VehicleType, Double> load(long days, int mileage, int licenseYears) {
+        loads.incrementAndGet();
+        return Map.of(VehicleType.SEDAN, (double) days);
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.errors.ReservationNotPossibleException;
+import org.example.respository.CompactReservationRepositoryImpl;
+import org.example.respository.FleetIndexedReservationRepository;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.example.respository.IntervalTreeReservationRepositoryImpl;
+import org.example.respository.ReservationRepository;
+import org.example.respository.ShardedReservationRepository;
+import org.example.respository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+    private static final int VEHICLES = 8;
+
+    private ReservationRepository reservationRepository;
+
+    static Stream<Arguments> repositories() {
+        return Stream.of(
+                Arguments.of((Supplier<ReservationRepository>) InMemoryReservationRepositoryImpl::new),
+                Arguments.of((Supplier<ReservationRepository>) IntervalTreeReservationRepositoryImpl::new),
+                Arguments.of((Supplier<ReservationRepository>)
+                        () -> new FleetIndexedReservationRepository(new IntervalTreeReservationRepositoryImpl())),
+                Arguments.of((Supplier<ReservationRepository>) CompactReservationRepositoryImpl::new),
+                Arguments.of((Supplier<ReservationRepository>) () -> new ShardedReservationRepository(4))
+        );
+    }
+
+    @AfterEach
+    void closeRepository() throws Exception {
+        if (reservationRepository instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("repositories")
+    void shouldNeverDoubleBookUnderContention(Supplier<ReservationRepository> repositorySupplier) throws Exception {
+        reservationRepository = repositorySupplier.get();
+        VehicleRepository vehicleRepository = new InMemoryVehicleRepository();
+        ReservationService service = new ReservationServiceImpl(reservationRepository, vehicleRepository);
+        List<Vehicle> vans = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vans.add(new Vehicle(VehicleType.VAN));
+        }
+        vehicleRepository.saveAll(vans);
+
+        Queue<ReservationDetails> reserved = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDate from = LocalDate.now().plusDays(1 + random.nextInt(60));
+                    LocalDate to = from.plusDays(random.nextInt(4));
+                    try {
+                        reserved.add(random.nextBoolean()
+                                ? service.reserveCarByType(VehicleType.VAN, from, to, 100, 4)
+                                : service.reserveCarByVehicleId(vans.get(random.nextInt(VEHICLES)).getId(), from, to, 100, 4));
+                    } catch (ReservationNotPossibleException ignored) {
+                        // expected once the calendar fills up
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        Map<UUID, List<ReservationDetails>> byVehicle = reserved.stream()
+                .collect(Collectors.groupingBy(details -> details.getVehicle().getId()));
+        byVehicle.values().forEach(ReservationServiceConcurrencyTest::assertNoOverlaps);
+        assertTrue(reserved.size() > VEHICLES);
+    }
+
+    private static void assertNoOverlaps(List<ReservationDetails> reservations) {
+        List<ReservationDetails> sorted = new ArrayList<>(reservations);
+        sorted.sort(Comparator.comparing(ReservationDetails::getFromDate));
+        for (int i = 1; i < sorted.size(); i++) {
+            ReservationDetails previous = sorted.get(i - 1);
+            ReservationDetails current = sorted.get(i);
+            assertTrue(previous.getToDate().isBefore(current.getFromDate()),
+                    () -> "Overlapping reservations " + previous + " and " + current);
+        }
+    }
+}
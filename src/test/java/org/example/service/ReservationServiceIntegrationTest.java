@@ -1,9 +1,14 @@
 package org.example.service;
 
+import org.example.domain.AvailableSlot;
 import org.example.domain.ReservationDetails;
+import org.example.domain.ReservationOutcome;
+import org.example.domain.ReservationRequest;
 import org.example.domain.Vehicle;
 import org.example.domain.VehicleType;
+import org.example.errors.InvalidDateRangeException;
 import org.example.errors.ReservationNotPossibleException;
+import org.example.errors.VehicleNotFoundException;
 import org.example.respository.InMemoryReservationRepositoryImpl;
 import org.example.respository.InMemoryVehicleRepository;
 import org.example.respository.ReservationRepository;
@@ -13,7 +18,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -234,4 +243,168 @@ public class ReservationServiceIntegrationTest {
                 fromDate,
                 toDate, 100, 4));
     }
+
+    @Test
+    void shouldModifyIntoOverlappingDatesOfSameReservation() {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(Set.of(van));
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        ReservationDetails reservation = service.reserveCarByVehicleId(van.getId(), fromDate,
+                fromDate.plusDays(4), 100, 4);
+
+        ReservationDetails modified = service.modifyReservation(reservation.getId(), fromDate.plusDays(2),
+                fromDate.plusDays(6), 100, 4);
+
+        assertEquals(van, modified.getVehicle());
+        assertTrue(reservationRepository.findById(reservation.getId()).isEmpty());
+        assertEquals(modified, reservationRepository.findById(modified.getId()).orElseThrow());
+        assertFalse(reservationRepository.isAvailableOnDates(van.getId(), fromDate.plusDays(6), fromDate.plusDays(6)));
+        assertTrue(reservationRepository.isAvailableOnDates(van.getId(), fromDate, fromDate.plusDays(1)));
+    }
+
+    @Test
+    void shouldKeepReservationWhenModificationFails() {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(Set.of(van));
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        ReservationDetails reservation = service.reserveCarByVehicleId(van.getId(), fromDate,
+                fromDate.plusDays(2), 100, 4);
+        service.reserveCarByVehicleId(van.getId(), fromDate.plusDays(5), fromDate.plusDays(6), 100, 4);
+
+        assertThrows(ReservationNotPossibleException.class, () -> service.modifyReservation(reservation.getId(),
+                fromDate.plusDays(4), fromDate.plusDays(5), 100, 4));
+
+        assertEquals(reservation, reservationRepository.findById(reservation.getId()).orElseThrow());
+        assertFalse(reservationRepository.isAvailableOnDates(van.getId(), fromDate, fromDate));
+    }
+
+    @Test
+    void shouldReserveBatchWithPerRowOutcomes() {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(Set.of(new Vehicle(VehicleType.SEDAN), van));
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        LocalDate toDate = LocalDate.now().plusDays(3);
+
+        List<ReservationOutcome> outcomes = service.reserveBatch(List.of(
+                ReservationRequest.forVehicle(van.getId(), fromDate, toDate, 100, 4),
+                ReservationRequest.forType(VehicleType.SEDAN, fromDate, toDate, 100, 4),
+                ReservationRequest.forVehicle(van.getId(), fromDate, toDate, 100, 4),
+                ReservationRequest.forType(VehicleType.SEDAN, toDate, fromDate, 100, 4),
+                ReservationRequest.forType(VehicleType.SEDAN, fromDate, toDate, 100, 4)));
+
+        assertEquals(5, outcomes.size());
+        assertTrue(outcomes.get(0).isReserved());
+        assertEquals(van, outcomes.get(0).getReservationDetails().getVehicle());
+        assertTrue(outcomes.get(1).isReserved());
+        assertEquals(VehicleType.SEDAN, outcomes.get(1).getReservationDetails().getVehicle().getType());
+        assertInstanceOf(ReservationNotPossibleException.class, outcomes.get(2).getError());
+        assertInstanceOf(InvalidDateRangeException.class, outcomes.get(3).getError());
+        assertInstanceOf(ReservationNotPossibleException.class, outcomes.get(4).getError());
+        for (int row = 0; row < outcomes.size(); row++) {
+            assertEquals(row, outcomes.get(row).getRow());
+        }
+        assertEquals(2, reservationRepository.findAll().count());
+    }
+
+    @Test
+    void shouldDecideBatchRowsForTypeAndVehicleInInputOrder() {
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(Set.of(van));
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+        LocalDate toDate = LocalDate.now().plusDays(3);
+
+        List<ReservationOutcome> outcomes = service.reserveBatch(List.of(
+                ReservationRequest.forType(VehicleType.VAN, fromDate, toDate, 100, 4),
+                ReservationRequest.forVehicle(van.getId(), fromDate, toDate, 100, 4)));
+
+        assertTrue(outcomes.get(0).isReserved());
+        assertEquals(van, outcomes.get(0).getReservationDetails().getVehicle());
+        assertInstanceOf(ReservationNotPossibleException.class, outcomes.get(1).getError());
+    }
+
+    @Test
+    void shouldFailBatchRowsForUnknownVehicle() {
+        UUID unknownVehicleId = UUID.randomUUID();
+        LocalDate fromDate = LocalDate.now().plusDays(1);
+
+        List<ReservationOutcome> outcomes = service.reserveBatch(List.of(
+                ReservationRequest.forVehicle(unknownVehicleId, fromDate, fromDate.plusDays(2), 100, 4),
+                ReservationRequest.forVehicle(unknownVehicleId, fromDate.plusDays(5), fromDate.plusDays(6), 100, 4)));
+
+        assertTrue(outcomes.stream().noneMatch(ReservationOutcome::isReserved));
+        assertInstanceOf(VehicleNotFoundException.class, outcomes.get(1).getError());
+    }
+
+    @Test
+    void shouldFindAvailableSlotsAroundReservations() {
+        Vehicle busy = new Vehicle(VehicleType.SEDAN);
+        Vehicle straddling = new Vehicle(VehicleType.SEDAN);
+        Vehicle free = new Vehicle(VehicleType.SEDAN);
+        Vehicle van = new Vehicle(VehicleType.VAN);
+        vehicleRepository.saveAll(Set.of(busy, straddling, free, van));
+        LocalDate windowFrom = LocalDate.of(2030, 1, 1);
+        LocalDate windowTo = LocalDate.of(2030, 1, 20);
+        service.reserveCarByVehicleId(busy.getId(), LocalDate.of(2030, 1, 5), LocalDate.of(2030, 1, 7), 100, 4);
+        service.reserveCarByVehicleId(busy.getId(), LocalDate.of(2030, 1, 12), LocalDate.of(2030, 1, 12), 100, 4);
+        service.reserveCarByVehicleId(straddling.getId(), LocalDate.of(2029, 12, 28), LocalDate.of(2030, 1, 2), 100, 4);
+        service.reserveCarByVehicleId(van.getId(), windowFrom, windowTo, 100, 4);
+
+        Map<Vehicle, List<AvailableSlot>> slots = service.findAvailability(VehicleType.SEDAN, windowFrom, windowTo, 2)
+                .collect(Collectors.groupingBy(AvailableSlot::getVehicle));
+
+        assertEquals(List.of(
+                new AvailableSlot(busy, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 2)),
+                new AvailableSlot(busy, LocalDate.of(2030, 1, 8), LocalDate.of(2030, 1, 9)),
+                new AvailableSlot(busy, LocalDate.of(2030, 1, 13), LocalDate.of(2030, 1, 18))), slots.get(busy));
+        assertEquals(List.of(new AvailableSlot(straddling, LocalDate.of(2030, 1, 3), LocalDate.of(2030, 1, 18))),
+                slots.get(straddling));
+        assertEquals(List.of(new AvailableSlot(free, windowFrom, LocalDate.of(2030, 1, 18))), slots.get(free));
+        assertFalse(slots.containsKey(van));
+    }
+
+    @Test
+    void shouldOfferExactlyTheStartDatesWhichCanBeReserved() {
+        Vehicle first = new Vehicle(VehicleType.SUV);
+        Vehicle second = new Vehicle(VehicleType.SUV);
+        vehicleRepository.saveAll(Set.of(first, second));
+        LocalDate windowFrom = LocalDate.of(2030, 3, 1);
+        LocalDate windowTo = LocalDate.of(2030, 3, 31);
+        for (int day = 0; day < 40; day += 7) {
+            service.reserveCarByVehicleId(first.getId(), windowFrom.plusDays(day - 3), windowFrom.plusDays(day - 1), 100, 4);
+            service.reserveCarByVehicleId(second.getId(), windowFrom.plusDays(day), windowFrom.plusDays(day + day % 3), 100, 4);
+        }
+        int stayDays = 3;
+
+        Map<Vehicle, Set<LocalDate>> startDates = service.findAvailability(VehicleType.SUV, windowFrom, windowTo, stayDays)
+                .collect(Collectors.groupingBy(AvailableSlot::getVehicle,
+                        Collectors.flatMapping(AvailableSlot::getStartDates, Collectors.toSet())));
+
+        for (Vehicle vehicle : List.of(first, second)) {
+            for (LocalDate start = windowFrom; !start.plusDays(stayDays).isAfter(windowTo); start = start.plusDays(1)) {
+                assertEquals(reservationRepository.isAvailableOnDates(vehicle.getId(), start, start.plusDays(stayDays)),
+                        startDates.getOrDefault(vehicle, Set.of()).contains(start), vehicle + " on " + start);
+            }
+        }
+    }
+
+    @Test
+    void shouldFindNoSlotsForStayLongerThanWindow() {
+        vehicleRepository.save(new Vehicle(VehicleType.SEDAN));
+        LocalDate windowFrom = LocalDate.of(2030, 1, 1);
+
+        assertEquals(1, service.findAvailability(VehicleType.SEDAN, windowFrom, windowFrom.plusDays(2), 2).count());
+        assertEquals(0, service.findAvailability(VehicleType.SEDAN, windowFrom, windowFrom.plusDays(2), 3).count());
+    }
+
+    @Test
+    void shouldRejectInvalidAvailabilitySearch() {
+        LocalDate windowFrom = LocalDate.of(2030, 1, 1);
+
+        assertThrows(InvalidDateRangeException.class,
+                () -> service.findAvailability(VehicleType.SEDAN, windowFrom, windowFrom.minusDays(1), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findAvailability(VehicleType.SEDAN, windowFrom, windowFrom.plusDays(5), -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findAvailability(null, windowFrom, windowFrom.plusDays(5), 1));
+    }
 }
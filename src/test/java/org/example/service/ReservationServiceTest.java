@@ -18,7 +18,10 @@ import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ReservationServiceTest {
@@ -30,6 +33,7 @@ class ReservationServiceTest {
     @BeforeEach
     void setUp() {
         reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.findAvailableVehicles(any(), any(), any(), any())).thenCallRealMethod();
         vehicleRepository = mock(VehicleRepository.class);
         service = new ReservationServiceImpl(reservationRepository, vehicleRepository);
     }
@@ -46,6 +50,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now().plusDays(1);
         LocalDate toDate = LocalDate.now().plusDays(3);
@@ -66,6 +71,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(any())).thenThrow(new VehicleNotFoundException(""));
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now().plusDays(1);
         LocalDate toDate = LocalDate.now().plusDays(3);
@@ -79,6 +85,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(any())).thenReturn(Set.of());
         when(vehicleRepository.getVehicleByVehicleId(any())).thenThrow(new VehicleNotFoundException(""));
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now().plusDays(1);
         LocalDate toDate = LocalDate.now().plusDays(3);
@@ -98,6 +105,7 @@ class ReservationServiceTest {
         Vehicle vehicle = new Vehicle(type);
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now().plusDays(1);
         LocalDate toDate = LocalDate.now().plusDays(3);
@@ -118,6 +126,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now();
         LocalDate toDate = LocalDate.now().plusDays(10);
@@ -153,6 +162,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate toDate = LocalDate.now();
         LocalDate fromDate = LocalDate.now().plusDays(10);
@@ -168,6 +178,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now();
         LocalDate toDate = LocalDate.now().plusDays(10);
@@ -183,6 +194,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now();
         LocalDate toDate = LocalDate.now().plusDays(10);
@@ -198,6 +210,7 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now();
         LocalDate toDate = LocalDate.now().plusDays(10);
@@ -256,22 +269,40 @@ class ReservationServiceTest {
         when(vehicleRepository.getVehiclesByType(type)).thenReturn(Set.of(vehicle));
         when(vehicleRepository.getVehicleByVehicleId(vehicle.getId())).thenReturn(vehicle);
         when(reservationRepository.isAvailableOnDates(any(), any(), any())).thenReturn(true);
+        when(reservationRepository.tryReserve(any())).thenReturn(true);
         ReservationDetails reservationDetails = mock(ReservationDetails.class);
         when(reservationDetails.getVehicle()).thenReturn(vehicle);
-        when(reservationRepository.remove(any())).thenReturn(reservationDetails);
+        UUID reservationId = UUID.randomUUID();
+        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservationDetails));
+        when(reservationRepository.replace(eq(reservationId), any())).thenReturn(true);
 
         LocalDate fromDate = LocalDate.now();
         LocalDate toDate = LocalDate.now().plusDays(10);
         //10 days of reservation
-        ReservationDetails result = service.modifyReservation(UUID.randomUUID(), fromDate,
+        ReservationDetails result = service.modifyReservation(reservationId, fromDate,
                 toDate, 100, 2);
 
+        verify(reservationRepository, never()).remove(any());
         assertEquals(vehicle, result.getVehicle());
         assertEquals(fromDate, result.getFromDate());
         assertEquals(toDate, result.getToDate());
         assertEquals(330.0, result.getPrice());
     }
 
+    @Test
+    void testReservationModificationKeepsReservationWhenDatesAreTaken(){
+        Vehicle vehicle = new Vehicle(VehicleType.SUV);
+        ReservationDetails reservationDetails = mock(ReservationDetails.class);
+        when(reservationDetails.getVehicle()).thenReturn(vehicle);
+        UUID reservationId = UUID.randomUUID();
+        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservationDetails));
+        when(reservationRepository.replace(eq(reservationId), any())).thenReturn(false);
+
+        assertThrows(ReservationNotPossibleException.class, () -> service.modifyReservation(reservationId,
+                LocalDate.now(), LocalDate.now().plusDays(2), 100, 2));
+        verify(reservationRepository, never()).remove(any());
+    }
+
     private Set<Vehicle> createVehicles(List<VehicleType> vehicleTypes) {
         return vehicleTypes.stream().map(
                 Vehicle::new
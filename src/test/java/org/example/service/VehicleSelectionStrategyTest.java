@@ -0,0 +1,97 @@
+package org.example.service;
+
+import org.example.domain.ReservationDetails;
+import org.example.domain.Vehicle;
+import org.example.domain.VehicleType;
+import org.example.respository.InMemoryReservationRepositoryImpl;
+import org.example.respository.InMemoryVehicleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VehicleSelectionStrategyTest {
+
+    private static final LocalDate DAY_ONE = LocalDate.now().plusDays(1);
+
+    private final InMemoryVehicleRepository vehicleRepository = new InMemoryVehicleRepository();
+    private final List<Vehicle> vans = List.of(new Vehicle(VehicleType.VAN), new Vehicle(VehicleType.VAN),
+            new Vehicle(VehicleType.VAN));
+
+    @Test
+    void roundRobinShouldSpreadReservationsOverTheFleet() {
+        ReservationService service = serviceWith(new RoundRobinSelectionStrategy());
+
+        Set<UUID> reservedVehicles = new HashSet<>();
+        for (int i = 0; i < vans.size(); i++) {
+            reservedVehicles.add(reserveVan(service, i, i).getVehicle().getId());
+        }
+
+        assertEquals(vans.size(), reservedVehicles.size());
+    }
+
+    @Test
+    void leastUtilizedShouldAvoidTheBusiestVehicles() {
+        LeastUtilizedSelectionStrategy strategy = new LeastUtilizedSelectionStrategy();
+        ReservationService service = serviceWith(strategy);
+        service.reserveCarByVehicleId(vans.get(0).getId(), DAY_ONE, DAY_ONE.plusDays(9), 100, 5);
+        service.reserveCarByVehicleId(vans.get(1).getId(), DAY_ONE, DAY_ONE.plusDays(4), 100, 5);
+
+        ReservationDetails details = reserveVan(service, 20, 21);
+
+        assertEquals(vans.get(2).getId(), details.getVehicle().getId());
+        assertEquals(2, strategy.getReservedDays(vans.get(2).getId()));
+        service.cancelReservation(details.getId());
+        assertEquals(0, strategy.getReservedDays(vans.get(2).getId()));
+    }
+
+    @Test
+    void bestFitShouldPackReservationsNextToExistingOnes() {
+        ReservationService service = serviceWith(new BestFitSelectionStrategy());
+        service.reserveCarByVehicleId(vans.get(0).getId(), DAY_ONE, DAY_ONE.plusDays(1), 100, 5);
+        service.reserveCarByVehicleId(vans.get(1).getId(), DAY_ONE.plusDays(10), DAY_ONE.plusDays(12), 100, 5);
+
+        assertEquals(vans.get(0).getId(), reserveVan(service, 2, 3).getVehicle().getId());
+        assertEquals(vans.get(1).getId(), reserveVan(service, 8, 9).getVehicle().getId());
+        assertEquals(vans.get(0).getId(), reserveVan(service, 5, 6).getVehicle().getId());
+    }
+
+    @Test
+    void strategiesShouldStopCheckingAvailabilityAtTheFirstFreeVehicle() {
+        Set<Vehicle> fleet = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            fleet.add(new Vehicle(VehicleType.SEDAN));
+        }
+        AtomicInteger checked = new AtomicInteger();
+        InMemoryReservationRepositoryImpl reservationRepository = new InMemoryReservationRepositoryImpl() {
+            @Override
+            public boolean isAvailableOnDates(UUID vehicleId, LocalDate fromDate, LocalDate toDate) {
+                checked.incrementAndGet();
+                return super.isAvailableOnDates(vehicleId, fromDate, toDate);
+            }
+        };
+
+        for (VehicleSelectionStrategy strategy : List.of(new RoundRobinSelectionStrategy(),
+                new LeastUtilizedSelectionStrategy())) {
+            checked.set(0);
+            assertTrue(strategy.findCandidates(VehicleType.SEDAN, fleet, DAY_ONE, DAY_ONE, reservationRepository)
+                    .findFirst().isPresent());
+            assertEquals(FleetSnapshot.FIRST_CHUNK_SIZE, checked.get(), strategy.getClass().getSimpleName());
+        }
+    }
+
+    private ReservationService serviceWith(VehicleSelectionStrategy strategy) {
+        vehicleRepository.saveAll(vans);
+        return new ReservationServiceImpl(new InMemoryReservationRepositoryImpl(), vehicleRepository, strategy);
+    }
+
+    private static ReservationDetails reserveVan(ReservationService service, int fromDay, int toDay) {
+        return service.reserveCarByType(VehicleType.VAN, DAY_ONE.plusDays(fromDay), DAY_ONE.plusDays(toDay), 100, 5);
+    }
+}